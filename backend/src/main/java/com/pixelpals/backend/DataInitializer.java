@@ -3,8 +3,12 @@ package com.pixelpals.backend;
 import com.pixelpals.backend.model.Game;
 import com.pixelpals.backend.model.Platform;
 import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.repository.ChatSequenceRepository;
 import com.pixelpals.backend.repository.GameRepository;
+import com.pixelpals.backend.repository.MatchRepository;
+import com.pixelpals.backend.repository.MessageRepository;
 import com.pixelpals.backend.repository.PlatformRepository;
+import com.pixelpals.backend.repository.UnreadCounterRepository;
 import com.pixelpals.backend.repository.UserRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
@@ -27,9 +31,21 @@ public class DataInitializer {
     public CommandLineRunner initData(
             UserRepository userRepository,
             GameRepository gameRepository,
-            PlatformRepository platformRepository
+            PlatformRepository platformRepository,
+            MatchRepository matchRepository,
+            UnreadCounterRepository unreadCounterRepository,
+            MessageRepository messageRepository,
+            ChatSequenceRepository chatSequenceRepository
     ) {
         return args -> {
+            userRepository.backfillMatchmakingIds();
+            matchRepository.backfillPairKeys();
+            messageRepository.migrateEmbeddedParticipants();
+            chatSequenceRepository.backfillMessageSequences();
+            chatSequenceRepository.backfillParticipants();
+            messageRepository.ensureSearchIndex();
+            unreadCounterRepository.backfillFromMessages();
+
             /*
             if (userRepository.findByUsername("admin").isEmpty()) {
                 User admin = new User();
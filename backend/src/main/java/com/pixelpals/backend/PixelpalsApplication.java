@@ -11,9 +11,11 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableMongoRepositories(basePackages = "com.pixelpals.backend.repository")
 @SpringBootApplication
+@EnableScheduling
 public class
 
 PixelpalsApplication {
@@ -2,6 +2,7 @@ package com.pixelpals.backend.WebSocket;
 
 import com.pixelpals.backend.dto.UserStatusDTO;
 import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.service.MatchmakingQueueService;
 import com.pixelpals.backend.service.UserService;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -18,11 +19,14 @@ public class WebSocketEventListener {
     private final UserService userService;
     private final SimpMessagingTemplate messagingTemplate;
     private final UserSessionRegistry userSessionRegistry;
+    private final MatchmakingQueueService matchmakingQueueService;
 
-    public WebSocketEventListener(UserService userService, SimpMessagingTemplate messagingTemplate, UserSessionRegistry userSessionRegistry) {
+    public WebSocketEventListener(UserService userService, SimpMessagingTemplate messagingTemplate, UserSessionRegistry userSessionRegistry,
+                                  MatchmakingQueueService matchmakingQueueService) {
         this.userService = userService;
         this.messagingTemplate = messagingTemplate;
         this.userSessionRegistry = userSessionRegistry;
+        this.matchmakingQueueService = matchmakingQueueService;
     }
 
     @EventListener
@@ -55,6 +59,7 @@ public class WebSocketEventListener {
             userService.getUserByUsername(username).ifPresent(user -> {
                 boolean isNowOffline = userSessionRegistry.deregisterSession(user.getId(), sessionId);
                 if (isNowOffline) {
+                    matchmakingQueueService.leave(user.getId());
                     userService.setUserOnlineStatus(user.getId(), false);
                     messagingTemplate.convertAndSend("/topic/status",
                             new UserStatusDTO(user.getId(), user.getUsername(), false));
@@ -1,7 +1,6 @@
 package com.pixelpals.backend.controller;
 
 import com.pixelpals.backend.dto.FriendDTO;
-import com.pixelpals.backend.model.Friendship;
 import com.pixelpals.backend.model.User;
 import com.pixelpals.backend.service.FriendshipService;
 import com.pixelpals.backend.service.UserService;
@@ -36,11 +35,10 @@ public class FriendSocketController {
         User user = userService.getUserByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<Friendship> friendships = friendshipService.getAcceptedFriendships(user);
+        List<User> friends = friendshipService.getFriendUsers(user.getId());
 
-        List<FriendDTO> friendList = friendships.stream()
-                .map(f -> {
-                    User friend = f.getSender().getId().equals(user.getId()) ? f.getReceiver() : f.getSender();
+        List<FriendDTO> friendList = friends.stream()
+                .map(friend -> {
                     boolean isFriendOnline = userSessionRegistry.isUserOnline(friend.getId());
                     return new FriendDTO(friend.getId(), friend.getUsername(), isFriendOnline, friend.getAvatarUrl());
                 })
@@ -3,12 +3,15 @@ import com.pixelpals.backend.dto.FriendDTO;
 import com.pixelpals.backend.dto.FriendshipDTO;
 import com.pixelpals.backend.dto.UserDTO;
 import com.pixelpals.backend.enumeration.FriendshipStatus;
+import com.pixelpals.backend.model.User;
 import com.pixelpals.backend.service.FriendshipService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
@@ -83,10 +86,10 @@ public class FriendshipController {
     @GetMapping("/status/{otherUserId}")
     public ResponseEntity<Map<String, String>> getFriendshipStatusWithUser(
             @PathVariable String otherUserId,
-            Principal principal) {
+            @AuthenticationPrincipal UserDetails userDetails) {
         try {
-            String currentUsername = principal.getName();
-            FriendshipStatus status = friendshipService.getFriendshipStatusBetweenUsers(currentUsername, otherUserId);
+            String currentUserId = ((User) userDetails).getId();
+            FriendshipStatus status = friendshipService.getFriendshipStatusBetweenUsers(currentUserId, otherUserId);
             return ResponseEntity.ok(Map.of("status", status.name()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
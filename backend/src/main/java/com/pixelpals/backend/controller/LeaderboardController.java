@@ -0,0 +1,50 @@
+package com.pixelpals.backend.controller;
+
+import com.pixelpals.backend.dto.LeaderboardEntryDTO;
+import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@RequiredArgsConstructor
+public class LeaderboardController {
+    private final LeaderboardService leaderboardService;
+
+    @GetMapping
+    public ResponseEntity<?> getLeaderboard(@RequestParam(defaultValue = "RATING") String metric,
+                                            @RequestParam(required = false) String gameId,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<LeaderboardEntryDTO> entries = leaderboardService.getTop(metric, gameId, limit);
+            return ResponseEntity.ok(entries);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/me")
+    public ResponseEntity<?> getMyRank(@RequestParam(defaultValue = "RATING") String metric,
+                                       @RequestParam(required = false) String gameId,
+                                       @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            Optional<LeaderboardEntryDTO> entry = leaderboardService.getRank(metric, gameId, ((User) userDetails).getId());
+            return entry.<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Not ranked yet.")));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+}
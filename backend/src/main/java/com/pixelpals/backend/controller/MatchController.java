@@ -1,11 +1,15 @@
 package com.pixelpals.backend.controller;
+import com.pixelpals.backend.dto.CursorPageDTO;
 import com.pixelpals.backend.dto.GameMatchRequestDTO;
 import com.pixelpals.backend.dto.MatchDetailsDTO;
 import com.pixelpals.backend.dto.MatchRequestDTO;
 import com.pixelpals.backend.dto.MatchedUserDTO;
+import com.pixelpals.backend.dto.QueueRequestDTO;
+import com.pixelpals.backend.dto.QueueStatsDTO;
 import com.pixelpals.backend.dto.RatingRequestDTO;
 import com.pixelpals.backend.model.User;
 import com.pixelpals.backend.service.MatchService;
+import com.pixelpals.backend.service.MatchmakingQueueService;
 import com.pixelpals.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -23,6 +27,7 @@ import java.util.Map;
 public class MatchController {
     private final MatchService matchService;
     private final UserService userService;
+    private final MatchmakingQueueService matchmakingQueueService;
 
     @PostMapping("/request")
     public ResponseEntity<?> requestGameMatch(@RequestBody GameMatchRequestDTO requestDTO, @AuthenticationPrincipal UserDetails userDetails) {
@@ -42,6 +47,35 @@ public class MatchController {
         return ResponseEntity.ok(matches);
     }
 
+    @GetMapping("/available-now")
+    public ResponseEntity<List<MatchedUserDTO>> findPlayersAvailableNow(@RequestParam(required = false) String gameName,
+                                                                        @RequestParam(defaultValue = "10") int maxResults,
+                                                                        @AuthenticationPrincipal UserDetails userDetails) {
+        List<MatchedUserDTO> players = matchService.findPlayersAvailableNow(gameName, maxResults, userDetails.getUsername());
+        return ResponseEntity.ok(players);
+    }
+
+    @PostMapping("/queue")
+    public ResponseEntity<?> joinQueue(@RequestBody QueueRequestDTO request, @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            matchmakingQueueService.enqueue((User) userDetails, request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("message", "Joined the matchmaking queue."));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/queue")
+    public ResponseEntity<?> leaveQueue(@AuthenticationPrincipal UserDetails userDetails) {
+        boolean left = matchmakingQueueService.leave(((User) userDetails).getId());
+        return ResponseEntity.ok(Map.of("left", left));
+    }
+
+    @GetMapping("/queue/stats")
+    public ResponseEntity<QueueStatsDTO> getQueueStats() {
+        return ResponseEntity.ok(matchmakingQueueService.getStats());
+    }
+
     @GetMapping("/pending-game-match")
     public ResponseEntity<List<MatchDetailsDTO>> getPendingGameMatches(@AuthenticationPrincipal UserDetails userDetails) {
         try {
@@ -53,6 +87,21 @@ public class MatchController {
         }
     }
 
+    @GetMapping("/history")
+    public ResponseEntity<?> getMatchHistory(@RequestParam(required = false) String status,
+                                             @RequestParam(required = false) String gameId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "20") int limit,
+                                             @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            String userId = ((User) userDetails).getId();
+            CursorPageDTO<MatchDetailsDTO> page = matchService.getMatchHistory(userId, status, gameId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
     @PutMapping("/{matchId}/accept")
     public ResponseEntity<?> acceptGameMatch(@PathVariable String matchId, @AuthenticationPrincipal UserDetails userDetails) {
         try {
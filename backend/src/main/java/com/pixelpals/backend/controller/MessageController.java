@@ -1,16 +1,25 @@
 package com.pixelpals.backend.controller;
+import com.pixelpals.backend.dto.ChatSyncRequestDTO;
+import com.pixelpals.backend.dto.CursorPageDTO;
 import com.pixelpals.backend.dto.MessageDTO;
+import com.pixelpals.backend.dto.MessageSearchPageDTO;
+import com.pixelpals.backend.dto.RecentMessagesCacheStatsDTO;
 import com.pixelpals.backend.model.User;
 import com.pixelpals.backend.service.MessageService;
 import com.pixelpals.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -26,14 +35,17 @@ public class MessageController {
     private final SimpMessagingTemplate messagingTemplate;
 
     @GetMapping("/history/{user2Id}")
-    public ResponseEntity<?> getChatHistory(@PathVariable String user2Id, Principal principal) {
+    public ResponseEntity<?> getChatHistory(@PathVariable String user2Id,
+                                            @RequestParam(required = false) String before,
+                                            @RequestParam(defaultValue = "50") int limit,
+                                            Principal principal) {
         try {
             User currentUser = userService.getUserByUsername(principal.getName())
                     .orElseThrow(() -> new RuntimeException("Utente corrente non trovato."));
             String user1Id = currentUser.getId();
 
-            List<MessageDTO> messages = messageService.getChatHistoryBetweenUsers(user1Id, user2Id);
-            return ResponseEntity.ok(messages);
+            CursorPageDTO<MessageDTO> page = messageService.getChatHistoryBetweenUsers(user1Id, user2Id, before, limit);
+            return historyResponse(page);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "Errore nel recupero della cronologia chat: " + e.getMessage()));
@@ -41,41 +53,127 @@ public class MessageController {
     }
 
     @GetMapping("/match/{matchId}/history")
-    public ResponseEntity<?> getMatchChatHistory(@PathVariable String matchId, Principal principal) {
+    public ResponseEntity<?> getMatchChatHistory(@PathVariable String matchId,
+                                                 @RequestParam(required = false) String before,
+                                                 @RequestParam(defaultValue = "50") int limit,
+                                                 Principal principal) {
         try {
-            List<MessageDTO> messages = messageService.getChatHistoryForMatch(matchId);
-            return ResponseEntity.ok(messages);
+            User currentUser = userService.getUserByUsername(principal.getName())
+                    .orElseThrow(() -> new RuntimeException("Utente corrente non trovato."));
+            CursorPageDTO<MessageDTO> page = messageService.getChatHistoryForMatch(currentUser.getId(), matchId, before, limit);
+            return historyResponse(page);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("message", "Errore nel recupero della cronologia chat del match: " + e.getMessage()));
         }
     }
 
+    @GetMapping("/history/{user2Id}/since")
+    public ResponseEntity<?> getChatMessagesSince(@PathVariable String user2Id,
+                                                  @RequestParam long seq,
+                                                  @RequestParam(defaultValue = "200") int limit,
+                                                  Principal principal) {
+        try {
+            User currentUser = userService.getUserByUsername(principal.getName())
+                    .orElseThrow(() -> new RuntimeException("Utente corrente non trovato."));
+            CursorPageDTO<MessageDTO> page = messageService.getMessagesSinceBetweenUsers(currentUser.getId(), user2Id, seq, limit);
+            return historyResponse(page);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Errore nel recupero dei nuovi messaggi: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/match/{matchId}/history/since")
+    public ResponseEntity<?> getMatchChatMessagesSince(@PathVariable String matchId,
+                                                       @RequestParam long seq,
+                                                       @RequestParam(defaultValue = "200") int limit,
+                                                       Principal principal) {
+        try {
+            User currentUser = userService.getUserByUsername(principal.getName())
+                    .orElseThrow(() -> new RuntimeException("Utente corrente non trovato."));
+            CursorPageDTO<MessageDTO> page = messageService.getMessagesSinceForMatch(currentUser.getId(), matchId, seq, limit);
+            return historyResponse(page);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Errore nel recupero dei nuovi messaggi del match: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export/{user2Id}")
+    public ResponseEntity<?> exportChat(@PathVariable String user2Id, Principal principal) {
+        try {
+            User currentUser = userService.getUserByUsername(principal.getName())
+                    .orElseThrow(() -> new RuntimeException("Utente corrente non trovato."));
+            return exportResponse(messageService.generateChatRoomId(currentUser.getId(), user2Id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Errore nell'esportazione della chat: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/export/room/{chatRoomId}")
+    public ResponseEntity<?> exportChatRoom(@PathVariable String chatRoomId, Authentication authentication) {
+        try {
+            boolean isAdmin = authentication.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+            if (!isAdmin) {
+                User currentUser = userService.getUserByUsername(authentication.getName())
+                        .orElseThrow(() -> new RuntimeException("Utente corrente non trovato."));
+                messageService.checkChatRoomAccess(currentUser.getId(), chatRoomId);
+            }
+            return exportResponse(chatRoomId);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("message", "Errore nell'esportazione della chat: " + e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(String chatRoomId) {
+        StreamingResponseBody body = out -> messageService.exportChatRoom(chatRoomId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"chat-" + chatRoomId + ".ndjson\"")
+                .body(body);
+    }
+
+    private ResponseEntity<List<MessageDTO>> historyResponse(CursorPageDTO<MessageDTO> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
     @MessageMapping("/chat.sendMessage")
     public void sendMessage(@Payload MessageDTO messageDTO, Principal principal) {
-        String senderUsername = principal.getName();
-        User sender = userService.getUserByUsername(senderUsername)
-                .orElseThrow(() -> new RuntimeException("Mittente WebSocket non trovato."));
+        if (!(principal instanceof Authentication authentication) || !(authentication.getPrincipal() instanceof User sender)) {
+            throw new RuntimeException("Mittente WebSocket non trovato.");
+        }
         messageDTO.setSenderId(sender.getId());
         messageDTO.setSenderUsername(sender.getUsername());
         messageDTO.setTimestamp(LocalDateTime.now());
         MessageDTO savedMessage = messageService.sendMessage(messageDTO);
         String chatRoomTopic = "/topic/chatRoom/" + savedMessage.getChatRoomId();
         messagingTemplate.convertAndSend(chatRoomTopic, savedMessage);
+    }
 
-        if (savedMessage.getReceiverId() != null) {
-            int totalUnread = messageService.getTotalUnreadCount(savedMessage.getReceiverId());
-            Map<String, Integer> unreadCountsPerChat = messageService.getUnreadCountsPerChat(savedMessage.getReceiverId());
-            Map<String, Object> updatePayload = new HashMap<>();
-            updatePayload.put("totalUnreadCount", totalUnread);
-            updatePayload.put("unreadCountsPerChat", unreadCountsPerChat);
-            updatePayload.put("chatRoomId", savedMessage.getChatRoomId());
-            messagingTemplate.convertAndSendToUser(
-                    userService.getUserById(savedMessage.getReceiverId()).orElseThrow().getUsername(),
-                    "/queue/unread-updates",
-                    updatePayload
-            );
+    @MessageMapping("/chat.sync")
+    public void syncChatRoom(@Payload ChatSyncRequestDTO request, Principal principal) {
+        if (!(principal instanceof Authentication authentication) || !(authentication.getPrincipal() instanceof User user)) {
+            throw new RuntimeException("Utente WebSocket non trovato.");
         }
+        CursorPageDTO<MessageDTO> page = messageService.syncChatRoom(user.getId(), request.getChatRoomId(), request.getSinceSeq(), 200);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("chatRoomId", request.getChatRoomId());
+        payload.put("messages", page.getItems());
+        payload.put("nextSeq", page.getNextCursor());
+        messagingTemplate.convertAndSendToUser(user.getUsername(), "/queue/chat-sync", payload);
     }
 
     @GetMapping("/unread/total")
@@ -102,6 +200,29 @@ public class MessageController {
         }
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMessages(@RequestParam String q,
+                                            @RequestParam(required = false) String chatRoomId,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int limit,
+                                            Principal principal) {
+        try {
+            User currentUser = userService.getUserByUsername(principal.getName())
+                    .orElseThrow(() -> new RuntimeException("Utente corrente non trovato."));
+            MessageSearchPageDTO page = messageService.searchMessages(currentUser.getId(), q, chatRoomId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<RecentMessagesCacheStatsDTO> getRecentMessagesCacheStats() {
+        return ResponseEntity.ok(messageService.getRecentMessagesCacheStats());
+    }
+
     @PostMapping("/mark-read/{chatRoomId}")
     public ResponseEntity<Void> markChatAsRead(@PathVariable String chatRoomId, Principal principal) {
         try {
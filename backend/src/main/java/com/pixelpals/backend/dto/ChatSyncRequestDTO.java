@@ -0,0 +1,13 @@
+package com.pixelpals.backend.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatSyncRequestDTO {
+    private String chatRoomId;
+    private long sinceSeq;
+}
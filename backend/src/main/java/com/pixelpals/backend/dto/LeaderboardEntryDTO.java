@@ -0,0 +1,17 @@
+package com.pixelpals.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LeaderboardEntryDTO {
+    private long rank;
+    private String userId;
+    private String username;
+    private double score;
+}
@@ -24,5 +24,6 @@ public class MatchDetailsDTO {
     private LocalDateTime acceptedAt;
     private LocalDateTime declinedAt;
     private LocalDateTime completedAt;
+    private LocalDateTime cancelledAt;
     private String chatRoomId;
 }
\ No newline at end of file
@@ -19,4 +19,5 @@ public class MessageDTO {
     private LocalDateTime timestamp;
     private boolean read;
     private String chatRoomId;
+    private Long seq;
 }
@@ -0,0 +1,22 @@
+package com.pixelpals.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of search results. {@code partial} is set when some of the user's rooms could not be searched within
+ * the time limit, so results from them may be missing.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageSearchPageDTO {
+    private List<MessageSearchResultDTO> items;
+    private String nextCursor;
+    private boolean partial;
+}
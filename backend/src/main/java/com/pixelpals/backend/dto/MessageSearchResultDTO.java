@@ -0,0 +1,15 @@
+package com.pixelpals.backend.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageSearchResultDTO {
+    private MessageDTO message;
+    private double score;
+    private List<int[]> highlights;
+}
@@ -0,0 +1,12 @@
+package com.pixelpals.backend.dto;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueRequestDTO {
+    private String gameId;
+    private String platformName;
+    private String skillLevel;
+}
@@ -0,0 +1,17 @@
+package com.pixelpals.backend.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class QueueStatsDTO {
+    private Map<String, Integer> queueDepthPerGame;
+    private int totalQueued;
+    private long matchesCreated;
+    private double averageTimeToMatchMs;
+    private long maxTimeToMatchMs;
+}
@@ -0,0 +1,16 @@
+package com.pixelpals.backend.dto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecentMessagesCacheStatsDTO {
+    private int rooms;
+    private int cachedMessages;
+    private long hits;
+    private long misses;
+    private double hitRate;
+}
@@ -0,0 +1,6 @@
+package com.pixelpals.backend.enumeration;
+public enum LeaderboardMetric {
+    RATING,
+    MATCHES_PLAYED,
+    LEVEL
+}
@@ -21,6 +21,7 @@ public class MatchMapper {
                 .acceptedAt(match.getAcceptedAt())
                 .declinedAt(match.getDeclinedAt())
                 .completedAt(match.getCompletedAt())
+                .cancelledAt(match.getCancelledAt())
                 .chatRoomId(match.getChatRoomId())
                 .build();
     }
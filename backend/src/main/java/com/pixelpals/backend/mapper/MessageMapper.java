@@ -11,10 +11,10 @@ public class MessageMapper {
         }
         return MessageDTO.builder()
                 .id(message.getId())
-                .senderId(message.getSender() != null ? message.getSender().getId() : null)
-                .senderUsername(message.getSender() != null ? message.getSender().getUsername() : null)
-                .receiverId(message.getReceiver() != null ? message.getReceiver().getId() : null)
-                .receiverUsername(message.getReceiver() != null ? message.getReceiver().getUsername() : null)
+                .senderId(message.getSenderId())
+                .senderUsername(message.getSenderUsername())
+                .receiverId(message.getReceiverId())
+                .receiverUsername(message.getReceiverUsername())
                 .content(message.getContent())
                 .timestamp(message.getTimestamp())
                 .read(message.isRead())
@@ -27,6 +27,10 @@ public class MessageMapper {
         }
         Message message = new Message();
         message.setId(messageDTO.getId());
+        message.setSenderId(messageDTO.getSenderId());
+        message.setSenderUsername(messageDTO.getSenderUsername());
+        message.setReceiverId(messageDTO.getReceiverId());
+        message.setReceiverUsername(messageDTO.getReceiverUsername());
         message.setContent(messageDTO.getContent());
         message.setTimestamp(messageDTO.getTimestamp());
         message.setRead(messageDTO.isRead());
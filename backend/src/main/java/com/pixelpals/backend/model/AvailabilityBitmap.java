@@ -0,0 +1,133 @@
+package com.pixelpals.backend.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+
+/**
+ * A week of availability as one bit per 15-minute slot, Monday 00:00 first.
+ * Overlap between two users is a word-wise AND followed by a popcount.
+ */
+public final class AvailabilityBitmap {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int SLOTS_PER_WEEK = 7 * SLOTS_PER_DAY;
+    public static final int WORDS = (SLOTS_PER_WEEK + Long.SIZE - 1) / Long.SIZE;
+
+    public static final AvailabilityBitmap EMPTY = new AvailabilityBitmap(new long[WORDS]);
+
+    private final long[] words;
+
+    private AvailabilityBitmap(long[] words) {
+        this.words = words;
+    }
+
+    public static AvailabilityBitmap of(Collection<TimeSlot> timeSlots) {
+        if (timeSlots == null || timeSlots.isEmpty()) {
+            return EMPTY;
+        }
+        long[] words = new long[WORDS];
+        for (TimeSlot timeSlot : timeSlots) {
+            if (timeSlot != null && timeSlot.getDayOfWeek() != null
+                    && timeSlot.getStartTime() != null && timeSlot.getEndTime() != null) {
+                fill(words, timeSlot.getDayOfWeek(), timeSlot.getStartTime(), timeSlot.getEndTime());
+            }
+        }
+        return new AvailabilityBitmap(words);
+    }
+
+    /**
+     * Parses slots written as {@code "MONDAY 18:00-21:30"}; entries that do not follow that format are skipped.
+     */
+    public static AvailabilityBitmap parse(Collection<String> timeSlots) {
+        if (timeSlots == null || timeSlots.isEmpty()) {
+            return EMPTY;
+        }
+        long[] words = new long[WORDS];
+        for (String timeSlot : timeSlots) {
+            if (timeSlot == null) {
+                continue;
+            }
+            String[] dayAndRange = timeSlot.trim().split("\\s+");
+            String[] range = dayAndRange.length == 2 ? dayAndRange[1].split("-") : new String[0];
+            if (range.length != 2) {
+                continue;
+            }
+            try {
+                fill(words, DayOfWeek.valueOf(dayAndRange[0].toUpperCase(Locale.ROOT)),
+                        LocalTime.parse(range[0]), LocalTime.parse(range[1]));
+            } catch (RuntimeException ignored) {
+            }
+        }
+        return new AvailabilityBitmap(words);
+    }
+
+    public static AvailabilityBitmap copyOf(long[] source, int offset) {
+        return new AvailabilityBitmap(Arrays.copyOfRange(source, offset, offset + WORDS));
+    }
+
+    public static int slotOf(LocalDateTime dateTime) {
+        return slotOf(dateTime.getDayOfWeek(), dateTime.toLocalTime());
+    }
+
+    public static int slotOf(DayOfWeek day, LocalTime time) {
+        return (day.getValue() - 1) * SLOTS_PER_DAY + (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    public int overlap(AvailabilityBitmap other) {
+        int overlap = 0;
+        for (int i = 0; i < WORDS; i++) {
+            overlap += Long.bitCount(words[i] & other.words[i]);
+        }
+        return overlap;
+    }
+
+    public int overlap(long[] other, int offset) {
+        int overlap = 0;
+        for (int i = 0; i < WORDS; i++) {
+            overlap += Long.bitCount(words[i] & other[offset + i]);
+        }
+        return overlap;
+    }
+
+    public void writeTo(long[] destination, int offset) {
+        System.arraycopy(words, 0, destination, offset, WORDS);
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void forEachSlot(IntConsumer action) {
+        for (int i = 0; i < WORDS; i++) {
+            long word = words[i];
+            while (word != 0L) {
+                action.accept(i * Long.SIZE + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    private static void fill(long[] words, DayOfWeek day, LocalTime start, LocalTime end) {
+        int from = slotOf(day, start);
+        int minutesToEnd = end.getHour() * 60 + end.getMinute();
+        int to = (day.getValue() - 1) * SLOTS_PER_DAY + (minutesToEnd + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        if (!end.isAfter(start)) {
+            to += SLOTS_PER_DAY;
+        }
+        for (int slot = from; slot < to; slot++) {
+            int wrapped = slot % SLOTS_PER_WEEK;
+            words[wrapped / Long.SIZE] |= 1L << (wrapped % Long.SIZE);
+        }
+    }
+}
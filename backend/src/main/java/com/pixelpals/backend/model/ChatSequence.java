@@ -0,0 +1,21 @@
+package com.pixelpals.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "chat_sequences")
+public class ChatSequence {
+    @Id
+    private String chatRoomId;
+    private long seq;
+    @Indexed
+    private List<String> participants;
+}
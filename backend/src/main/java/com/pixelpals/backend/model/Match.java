@@ -1,11 +1,19 @@
 package com.pixelpals.backend.model;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import com.pixelpals.backend.enumeration.MatchStatus;
 import java.time.LocalDateTime;
 @Data
 @Document(collection = "matches")
+@CompoundIndexes({
+        @CompoundIndex(name = "pending_pair_game", def = "{'pairKey': 1, 'gameId': 1}", unique = true,
+                partialFilter = "{'status': 'PENDING', 'pairKey': {'$exists': true}}"),
+        @CompoundIndex(name = "userA_status_matchedAt", def = "{'userAId': 1, 'status': 1, 'matchedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "userB_status_matchedAt", def = "{'userBId': 1, 'status': 1, 'matchedAt': -1, '_id': -1}")
+})
 public class Match {
     @Id
     private String id;
@@ -15,10 +23,12 @@ public class Match {
     private String userBUsername;
     private String gameId;
     private String gameName;
+    private String pairKey;
     private MatchStatus status;
     private LocalDateTime matchedAt;
     private LocalDateTime acceptedAt;
     private LocalDateTime declinedAt;
     private LocalDateTime completedAt;
+    private LocalDateTime cancelledAt;
     private String chatRoomId;
 }
@@ -1,20 +1,27 @@
 package com.pixelpals.backend.model;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 @Data
 @Document(collection = "messages")
+@CompoundIndexes({
+        @CompoundIndex(name = "chatRoom_timestamp", def = "{'chatRoomId': 1, 'timestamp': -1, '_id': -1}"),
+        @CompoundIndex(name = "chatRoom_seq", def = "{'chatRoomId': 1, 'seq': 1}", unique = true,
+                partialFilter = "{'seq': {'$exists': true}}")
+})
 public class Message {
     @Id
     private String id;
-    @DBRef
-    private User sender;
-    @DBRef
-    private User receiver;
+    private String senderId;
+    private String senderUsername;
+    private String receiverId;
+    private String receiverUsername;
     private String content;
     private LocalDateTime timestamp;
     private boolean read;
     private String chatRoomId;
+    private Long seq;
 }
@@ -0,0 +1,34 @@
+package com.pixelpals.backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One day of an archived chat room. The messages are stored as a gzipped JSON array, oldest first; the
+ * bounds are kept uncompressed so pages can pick buckets without opening them.
+ */
+@Data
+@Document(collection = "message_buckets")
+@CompoundIndexes({
+        @CompoundIndex(name = "chatRoom_day", def = "{'chatRoomId': 1, 'day': 1}", unique = true),
+        @CompoundIndex(name = "chatRoom_lastTimestamp", def = "{'chatRoomId': 1, 'lastTimestamp': -1}"),
+        @CompoundIndex(name = "chatRoom_lastSeq", def = "{'chatRoomId': 1, 'lastSeq': 1}")
+})
+public class MessageBucket {
+    @Id
+    private String id;
+    private String chatRoomId;
+    private LocalDate day;
+    private int count;
+    private LocalDateTime firstTimestamp;
+    private LocalDateTime lastTimestamp;
+    private Long firstSeq;
+    private Long lastSeq;
+    private byte[] messages;
+}
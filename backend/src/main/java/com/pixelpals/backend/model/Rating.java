@@ -0,0 +1,28 @@
+package com.pixelpals.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "ratings")
+@CompoundIndex(name = "match_rater", def = "{'matchId': 1, 'raterId': 1}", unique = true)
+public class Rating {
+    @Id
+    private String id;
+    private String matchId;
+    private String raterId;
+    private String ratedUserId;
+    private String gameId;
+    private int score;
+    private String feedback;
+    private LocalDateTime createdAt;
+}
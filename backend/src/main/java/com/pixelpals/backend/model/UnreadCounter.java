@@ -0,0 +1,25 @@
+package com.pixelpals.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "unread_counters")
+@CompoundIndex(name = "user_chatRoom", def = "{'userId': 1, 'chatRoomId': 1}", unique = true)
+public class UnreadCounter {
+    @Id
+    private String id;
+    private String userId;
+    private String chatRoomId;
+    private int count;
+    private LocalDateTime lastReadAt;
+}
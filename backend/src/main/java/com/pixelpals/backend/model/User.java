@@ -2,12 +2,14 @@ package com.pixelpals.backend.model;
 import com.pixelpals.backend.enumeration.SkillLevel;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import java.util.*;
+import java.util.stream.Collectors;
 @Document(collection = "users")
 @Data
 public class User implements UserDetails {
@@ -52,21 +54,37 @@ public class User implements UserDetails {
     @Override
     public String getUsername() { return username; }
     private List<TimeSlot> availability;
+    private List<Integer> availabilitySlots = new ArrayList<>();
     @DBRef
     private List<Platform> platforms = new ArrayList<>();
     @DBRef
     private List<Game> preferredGames = new ArrayList<>();
+    @Indexed
+    private List<String> platformIds = new ArrayList<>();
+    @Indexed
+    private List<String> preferredGameIds = new ArrayList<>();
     private Map<String, SkillLevel> skillLevelMap = new HashMap<>();
     @DBRef
     private List<Badge> badges = new ArrayList<>();
-    public void addRating(int newRating) {
-        this.totalRatingPoints += newRating;
-        this.numberOfRatings++;
-        if (this.numberOfRatings > 0) {
-            this.rating = this.totalRatingPoints / this.numberOfRatings;
-        } else {
-            this.rating = 0.0;
-        }
+    public void setPlatforms(List<Platform> platforms) {
+        this.platforms = platforms;
+        this.platformIds = platforms == null ? new ArrayList<>() : platforms.stream()
+                .map(Platform::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    public void setAvailability(List<TimeSlot> availability) {
+        this.availability = availability;
+        List<Integer> slots = new ArrayList<>();
+        AvailabilityBitmap.of(availability).forEachSlot(slots::add);
+        this.availabilitySlots = slots;
+    }
+    public void setPreferredGames(List<Game> preferredGames) {
+        this.preferredGames = preferredGames;
+        this.preferredGameIds = preferredGames == null ? new ArrayList<>() : preferredGames.stream()
+                .map(Game::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
     public void incrementMatchesPlayed() {
         this.matchesPlayed++;
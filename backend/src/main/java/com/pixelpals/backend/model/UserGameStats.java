@@ -0,0 +1,24 @@
+package com.pixelpals.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "user_game_stats")
+@CompoundIndex(name = "user_game", def = "{'userId': 1, 'gameId': 1}", unique = true)
+public class UserGameStats {
+    @Id
+    private String id;
+    private String userId;
+    private String gameId;
+    private int matches;
+    private double ratingPoints;
+    private int ratings;
+}
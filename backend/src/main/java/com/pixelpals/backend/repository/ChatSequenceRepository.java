@@ -0,0 +1,7 @@
+package com.pixelpals.backend.repository;
+import com.pixelpals.backend.model.ChatSequence;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+@Repository
+public interface ChatSequenceRepository extends MongoRepository<ChatSequence, String>, ChatSequenceRepositoryCustom {
+}
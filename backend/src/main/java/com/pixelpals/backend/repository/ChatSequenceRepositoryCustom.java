@@ -0,0 +1,8 @@
+package com.pixelpals.backend.repository;
+import java.util.List;
+public interface ChatSequenceRepositoryCustom {
+    long next(String chatRoomId, String senderId, String receiverId);
+    long backfillMessageSequences();
+    long backfillParticipants();
+    List<String> findChatRoomIds(String userId);
+}
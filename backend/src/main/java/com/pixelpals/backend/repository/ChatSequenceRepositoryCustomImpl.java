@@ -0,0 +1,155 @@
+package com.pixelpals.backend.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.pixelpals.backend.model.ChatSequence;
+import com.pixelpals.backend.model.Message;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+@RequiredArgsConstructor
+public class ChatSequenceRepositoryCustomImpl implements ChatSequenceRepositoryCustom {
+
+    private static final int BACKFILL_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Allocates the next sequence number of the room. Each room has its own counter document, so sends to
+     * different rooms never contend. The same update records the two participants, which lets a user's rooms be
+     * listed without scanning messages.
+     */
+    @Override
+    public long next(String chatRoomId, String senderId, String receiverId) {
+        return reserve(chatRoomId, 1, List.of(senderId, receiverId));
+    }
+
+    /**
+     * Numbers the messages written before sequences existed, room by room in (timestamp, id) order, reserving
+     * each batch's numbers from the room counter in one update.
+     */
+    @Override
+    public long backfillMessageSequences() {
+        long numbered = 0;
+        List<Document> batch = new ArrayList<>();
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Message.class))
+                .find(new Document("seq", new Document("$exists", false)))
+                .sort(new Document("chatRoomId", -1).append("timestamp", 1).append("_id", 1))
+                .projection(new Document("chatRoomId", 1).append("senderId", 1).append("receiverId", 1))
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document message = cursor.next();
+                if (message.getString("chatRoomId") == null) {
+                    continue;
+                }
+                if (!batch.isEmpty() && (batch.size() == BACKFILL_BATCH_SIZE
+                        || !Objects.equals(batch.get(0).getString("chatRoomId"), message.getString("chatRoomId")))) {
+                    numbered += numberBatch(batch);
+                    batch.clear();
+                }
+                batch.add(message);
+            }
+        }
+        if (!batch.isEmpty()) {
+            numbered += numberBatch(batch);
+        }
+        return numbered;
+    }
+
+    /**
+     * Records the participants of rooms numbered before participants were tracked, read from the room id for
+     * friend rooms and from one of the room's messages otherwise.
+     */
+    @Override
+    public long backfillParticipants() {
+        MongoCollection<Document> sequences = mongoTemplate.getCollection(mongoTemplate.getCollectionName(ChatSequence.class));
+        MongoCollection<Document> messages = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Message.class));
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        long updated = 0;
+        for (Document sequence : sequences.find(new Document("participants", new Document("$exists", false)))
+                .projection(new Document("_id", 1))) {
+            String chatRoomId = sequence.getString("_id");
+            List<String> participants = new ArrayList<>();
+            if (chatRoomId.contains("_")) {
+                participants.addAll(List.of(chatRoomId.split("_")));
+            } else {
+                Document message = messages.find(new Document("chatRoomId", chatRoomId))
+                        .projection(new Document("senderId", 1).append("receiverId", 1))
+                        .first();
+                if (message != null) {
+                    addParticipants(participants, message);
+                }
+            }
+            if (participants.isEmpty()) {
+                continue;
+            }
+            updates.add(new UpdateOneModel<>(new Document("_id", chatRoomId),
+                    new Document("$set", new Document("participants", participants))));
+            if (updates.size() == BACKFILL_BATCH_SIZE) {
+                updated += sequences.bulkWrite(updates).getModifiedCount();
+                updates.clear();
+            }
+        }
+        if (!updates.isEmpty()) {
+            updated += sequences.bulkWrite(updates).getModifiedCount();
+        }
+        return updated;
+    }
+
+    @Override
+    public List<String> findChatRoomIds(String userId) {
+        List<String> chatRoomIds = new ArrayList<>();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(ChatSequence.class))
+                .find(new Document("participants", userId))
+                .projection(new Document("_id", 1))
+                .forEach(sequence -> chatRoomIds.add(sequence.getString("_id")));
+        return chatRoomIds;
+    }
+
+    private long numberBatch(List<Document> batch) {
+        List<String> participants = new ArrayList<>();
+        batch.forEach(message -> addParticipants(participants, message));
+        long seq = reserve(batch.get(0).getString("chatRoomId"), batch.size(), participants) - batch.size();
+        List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+        for (Document message : batch) {
+            updates.add(new UpdateOneModel<>(new Document("_id", message.get("_id")),
+                    new Document("$set", new Document("seq", ++seq))));
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Message.class))
+                .bulkWrite(updates)
+                .getModifiedCount();
+    }
+
+    private static void addParticipants(List<String> participants, Document message) {
+        for (String field : List.of("senderId", "receiverId")) {
+            String userId = message.getString(field);
+            if (userId != null && !participants.contains(userId)) {
+                participants.add(userId);
+            }
+        }
+    }
+
+    private long reserve(String chatRoomId, int count, List<String> participants) {
+        Update update = new Update().inc("seq", count);
+        if (!participants.isEmpty()) {
+            update.addToSet("participants").each(participants.toArray());
+        }
+        ChatSequence sequence = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("chatRoomId").is(chatRoomId)),
+                update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                ChatSequence.class);
+        return Objects.requireNonNull(sequence).getSeq();
+    }
+}
@@ -0,0 +1,45 @@
+package com.pixelpals.backend.repository;
+
+import com.pixelpals.backend.model.Game;
+import com.pixelpals.backend.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Usernames and game names by id, loaded on first use. Games are seeded once and never renamed; usernames are
+ * evicted by {@code UserService} when a user is renamed or deleted.
+ */
+@Component
+@RequiredArgsConstructor
+public class DisplayNameCache {
+
+    private final UserRepository userRepository;
+    private final GameRepository gameRepository;
+
+    private final Map<String, String> usernames = new ConcurrentHashMap<>();
+    private final Map<String, String> gameNames = new ConcurrentHashMap<>();
+
+    public Optional<String> username(String userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(usernames.computeIfAbsent(userId,
+                id -> userRepository.findUsernameById(id).map(User::getUsername).orElse(null)));
+    }
+
+    public Optional<String> gameName(String gameId) {
+        if (gameId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(gameNames.computeIfAbsent(gameId,
+                id -> gameRepository.findById(id).map(Game::getName).orElse(null)));
+    }
+
+    public void evictUser(String userId) {
+        usernames.remove(userId);
+    }
+}
@@ -0,0 +1,207 @@
+package com.pixelpals.backend.repository;
+
+import com.mongodb.DBRef;
+import com.pixelpals.backend.enumeration.FriendshipStatus;
+import com.pixelpals.backend.model.Friendship;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The friendship graph held in memory. User ids are interned to ints and each user keeps sorted int sets of
+ * friends, pending requests sent and received, and rejected requests, so status checks and friend ids need
+ * no query. Loaded once at startup from the raw friendship documents, without resolving the user DBRefs, and
+ * kept in sync by {@code FriendshipService} and {@code UserService}.
+ */
+@Component
+@RequiredArgsConstructor
+public class FriendshipGraph {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<String> userIds = new ArrayList<>();
+    private final List<Adjacency> adjacency = new ArrayList<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Friendship.class))
+                .find()
+                .projection(new Document("sender", 1).append("receiver", 1).append("status", 1))
+                .forEach(friendship -> {
+                    Object senderId = referencedId(friendship.get("sender"));
+                    Object receiverId = referencedId(friendship.get("receiver"));
+                    String status = friendship.getString("status");
+                    if (senderId != null && receiverId != null && status != null) {
+                        update(senderId.toString(), receiverId.toString(), FriendshipStatus.valueOf(status));
+                    }
+                });
+    }
+
+    /**
+     * Records the current status of the request from {@code senderId} to {@code receiverId}, replacing whatever
+     * the pair had before.
+     */
+    public synchronized void update(String senderId, String receiverId, FriendshipStatus status) {
+        int sender = intern(senderId);
+        int receiver = intern(receiverId);
+        unlink(sender, receiver);
+        switch (status) {
+            case PENDING -> {
+                adjacency.get(sender).sent.add(receiver);
+                adjacency.get(receiver).received.add(sender);
+            }
+            case ACCEPTED -> {
+                adjacency.get(sender).friends.add(receiver);
+                adjacency.get(receiver).friends.add(sender);
+            }
+            case REJECTED -> {
+                adjacency.get(sender).rejected.add(receiver);
+                adjacency.get(receiver).rejected.add(sender);
+            }
+            default -> {
+            }
+        }
+    }
+
+    public synchronized void remove(String userId, String otherUserId) {
+        Integer user = indexes.get(userId);
+        Integer other = indexes.get(otherUserId);
+        if (user != null && other != null) {
+            unlink(user, other);
+        }
+    }
+
+    public synchronized void removeUser(String userId) {
+        Integer user = indexes.get(userId);
+        if (user == null) {
+            return;
+        }
+        Adjacency edges = adjacency.get(user);
+        for (IntSet set : List.of(edges.friends, edges.sent, edges.received, edges.rejected)) {
+            for (int other : set.toArray()) {
+                unlink(user, other);
+            }
+        }
+    }
+
+    public synchronized FriendshipStatus status(String userId, String otherUserId) {
+        if (userId.equals(otherUserId)) {
+            return FriendshipStatus.SELF;
+        }
+        Integer user = indexes.get(userId);
+        Integer other = indexes.get(otherUserId);
+        if (user == null || other == null) {
+            return FriendshipStatus.NONE;
+        }
+        Adjacency edges = adjacency.get(user);
+        if (edges.friends.contains(other)) {
+            return FriendshipStatus.ACCEPTED;
+        }
+        if (edges.sent.contains(other)) {
+            return FriendshipStatus.PENDING_SENT;
+        }
+        if (edges.received.contains(other)) {
+            return FriendshipStatus.PENDING_RECEIVED;
+        }
+        if (edges.rejected.contains(other)) {
+            return FriendshipStatus.REJECTED;
+        }
+        return FriendshipStatus.NONE;
+    }
+
+    public synchronized List<String> friendIds(String userId) {
+        Integer user = indexes.get(userId);
+        if (user == null) {
+            return List.of();
+        }
+        int[] friends = adjacency.get(user).friends.toArray();
+        List<String> ids = new ArrayList<>(friends.length);
+        for (int friend : friends) {
+            ids.add(userIds.get(friend));
+        }
+        return ids;
+    }
+
+    private void unlink(int user, int other) {
+        Adjacency a = adjacency.get(user);
+        Adjacency b = adjacency.get(other);
+        a.friends.remove(other);
+        b.friends.remove(user);
+        a.sent.remove(other);
+        b.received.remove(user);
+        b.sent.remove(user);
+        a.received.remove(other);
+        a.rejected.remove(other);
+        b.rejected.remove(user);
+    }
+
+    private int intern(String userId) {
+        return indexes.computeIfAbsent(userId, id -> {
+            userIds.add(id);
+            adjacency.add(new Adjacency());
+            return userIds.size() - 1;
+        });
+    }
+
+    private static Object referencedId(Object ref) {
+        return ref instanceof DBRef dbRef ? dbRef.getId()
+                : ref instanceof Document document ? document.get("$id") : null;
+    }
+
+    private static final class Adjacency {
+        final IntSet friends = new IntSet();
+        final IntSet sent = new IntSet();
+        final IntSet received = new IntSet();
+        final IntSet rejected = new IntSet();
+    }
+
+    /**
+     * A sorted int array; friend lists are small enough that shifting on insert beats boxing in a hash set.
+     */
+    private static final class IntSet {
+        private static final int[] EMPTY = new int[0];
+
+        private int[] values = EMPTY;
+        private int size;
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        void add(int value) {
+            int position = Arrays.binarySearch(values, 0, size, value);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(4, size * 2));
+            }
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = value;
+            size++;
+        }
+
+        void remove(int value) {
+            int position = Arrays.binarySearch(values, 0, size, value);
+            if (position >= 0) {
+                System.arraycopy(values, position + 1, values, position, size - position - 1);
+                size--;
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.pixelpals.backend.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Leaderboards kept in this process as size-augmented treaps, one per board.
+ */
+@Component
+@ConditionalOnProperty(name = "pixelpals.leaderboard.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryLeaderboardStore implements LeaderboardStore {
+
+    private final Map<String, Board> boards = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String board, String userId, double score) {
+        boards.computeIfAbsent(board, key -> new Board()).put(userId, score);
+    }
+
+    @Override
+    public void remove(String board, String userId) {
+        Board existing = boards.get(board);
+        if (existing != null) {
+            existing.remove(userId);
+        }
+    }
+
+    @Override
+    public List<Entry> top(String board, int limit) {
+        Board existing = boards.get(board);
+        return existing == null ? List.of() : existing.top(limit);
+    }
+
+    @Override
+    public Optional<Entry> find(String board, String userId) {
+        Board existing = boards.get(board);
+        return existing == null ? Optional.empty() : existing.find(userId);
+    }
+
+    private static final class Node {
+        final String userId;
+        final double score;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        Node left;
+        Node right;
+        int size = 1;
+
+        Node(String userId, double score) {
+            this.userId = userId;
+            this.score = score;
+        }
+    }
+
+    private static final class Board {
+
+        private final Map<String, Double> scores = new HashMap<>();
+        private Node root;
+
+        synchronized void put(String userId, double score) {
+            Double previous = scores.put(userId, score);
+            if (previous != null) {
+                root = delete(root, previous, userId);
+            }
+            root = insert(root, new Node(userId, score));
+        }
+
+        synchronized void remove(String userId) {
+            Double previous = scores.remove(userId);
+            if (previous != null) {
+                root = delete(root, previous, userId);
+            }
+        }
+
+        synchronized List<Entry> top(int limit) {
+            List<Entry> entries = new ArrayList<>(Math.min(limit, size(root)));
+            collect(root, limit, entries);
+            return entries;
+        }
+
+        synchronized Optional<Entry> find(String userId) {
+            Double score = scores.get(userId);
+            if (score == null) {
+                return Optional.empty();
+            }
+            long before = 0;
+            Node node = root;
+            while (node != null) {
+                int cmp = compare(score, userId, node);
+                if (cmp == 0) {
+                    before += size(node.left);
+                    break;
+                }
+                if (cmp < 0) {
+                    node = node.left;
+                } else {
+                    before += size(node.left) + 1;
+                    node = node.right;
+                }
+            }
+            return Optional.of(new Entry(userId, score, before + 1));
+        }
+
+        private static void collect(Node node, int limit, List<Entry> entries) {
+            if (node == null || entries.size() >= limit) {
+                return;
+            }
+            collect(node.left, limit, entries);
+            if (entries.size() < limit) {
+                entries.add(new Entry(node.userId, node.score, entries.size() + 1));
+            }
+            collect(node.right, limit, entries);
+        }
+
+        /**
+         * Orders by score descending, then user id ascending.
+         */
+        private static int compare(double score, String userId, Node node) {
+            int cmp = Double.compare(node.score, score);
+            return cmp != 0 ? cmp : userId.compareTo(node.userId);
+        }
+
+        private static Node insert(Node node, Node inserted) {
+            if (node == null) {
+                return inserted;
+            }
+            if (compare(inserted.score, inserted.userId, node) < 0) {
+                node.left = insert(node.left, inserted);
+                if (node.left.priority > node.priority) {
+                    node = rotateRight(node);
+                }
+            } else {
+                node.right = insert(node.right, inserted);
+                if (node.right.priority > node.priority) {
+                    node = rotateLeft(node);
+                }
+            }
+            update(node);
+            return node;
+        }
+
+        private static Node delete(Node node, double score, String userId) {
+            if (node == null) {
+                return null;
+            }
+            int cmp = compare(score, userId, node);
+            if (cmp < 0) {
+                node.left = delete(node.left, score, userId);
+            } else if (cmp > 0) {
+                node.right = delete(node.right, score, userId);
+            } else {
+                if (node.left == null) {
+                    return node.right;
+                }
+                if (node.right == null) {
+                    return node.left;
+                }
+                if (node.left.priority > node.right.priority) {
+                    node = rotateRight(node);
+                    node.right = delete(node.right, score, userId);
+                } else {
+                    node = rotateLeft(node);
+                    node.left = delete(node.left, score, userId);
+                }
+            }
+            update(node);
+            return node;
+        }
+
+        private static Node rotateRight(Node node) {
+            Node left = node.left;
+            node.left = left.right;
+            left.right = node;
+            update(node);
+            update(left);
+            return left;
+        }
+
+        private static Node rotateLeft(Node node) {
+            Node right = node.right;
+            node.right = right.left;
+            right.left = node;
+            update(node);
+            update(right);
+            return right;
+        }
+
+        private static void update(Node node) {
+            node.size = size(node.left) + size(node.right) + 1;
+        }
+
+        private static int size(Node node) {
+            return node == null ? 0 : node.size;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.pixelpals.backend.repository;
+import java.util.List;
+import java.util.Optional;
+/**
+ * Sorted boards of user scores, highest first; ties are ordered by user id. Implementations answer top-N and
+ * rank lookups in O(log n).
+ */
+public interface LeaderboardStore {
+    void put(String board, String userId, double score);
+    void remove(String board, String userId);
+    List<Entry> top(String board, int limit);
+    Optional<Entry> find(String board, String userId);
+    record Entry(String userId, double score, long rank) {
+    }
+}
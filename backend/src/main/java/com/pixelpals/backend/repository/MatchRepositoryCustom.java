@@ -0,0 +1,16 @@
+package com.pixelpals.backend.repository;
+import com.pixelpals.backend.enumeration.MatchStatus;
+import com.pixelpals.backend.model.Match;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+public interface MatchRepositoryCustom {
+    Optional<Match> transition(String matchId, MatchStatus expectedStatus, Criteria actor, UpdateDefinition update);
+    List<Match> expirePending(Collection<String> matchIds, LocalDateTime cancelledAt);
+    List<Match> findHistory(String userId, Collection<MatchStatus> statuses, String gameId,
+                            LocalDateTime beforeMatchedAt, String beforeId, int limit);
+    long backfillPairKeys();
+}
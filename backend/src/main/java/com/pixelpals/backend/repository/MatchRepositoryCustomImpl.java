@@ -0,0 +1,149 @@
+package com.pixelpals.backend.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.pixelpals.backend.enumeration.MatchStatus;
+import com.pixelpals.backend.model.Match;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class MatchRepositoryCustomImpl implements MatchRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Applies {@code update} only if the match is still in {@code expectedStatus} and {@code actor} matches,
+     * returning the updated document; an empty result means another request got there first or the caller
+     * is not allowed to make the transition.
+     */
+    @Override
+    public Optional<Match> transition(String matchId, MatchStatus expectedStatus, Criteria actor,
+                                      UpdateDefinition update) {
+        Query query = Query.query(Criteria.where("id").is(matchId).and("status").is(expectedStatus)).addCriteria(actor);
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Match.class));
+    }
+
+    /**
+     * Cancels the given matches that are still PENDING and returns exactly those, found again by the
+     * {@code cancelledAt} stamp of this batch.
+     */
+    @Override
+    public List<Match> expirePending(Collection<String> matchIds, LocalDateTime cancelledAt) {
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("id").in(matchIds).and("status").is(MatchStatus.PENDING)),
+                new Update().set("status", MatchStatus.CANCELLED).set("cancelledAt", cancelledAt),
+                Match.class);
+        return mongoTemplate.find(Query.query(Criteria.where("id").in(matchIds)
+                .and("status").is(MatchStatus.CANCELLED)
+                .and("cancelledAt").is(cancelledAt)), Match.class);
+    }
+
+    /**
+     * One page of a user's matches, newest first, strictly after the ({@code beforeMatchedAt}, {@code beforeId})
+     * keyset position when one is given. Each side of the $or carries the statuses as an $in and an upper bound
+     * on matchedAt, so both branches are bounded scans of the (user, status, matchedAt, _id) indexes whose
+     * results are merged in sort order instead of sorted in memory.
+     */
+    @Override
+    public List<Match> findHistory(String userId, Collection<MatchStatus> statuses, String gameId,
+                                   LocalDateTime beforeMatchedAt, String beforeId, int limit) {
+        Query query = new Query(new Criteria().orOperator(
+                historyBranch("userAId", userId, statuses, gameId, beforeMatchedAt, beforeId),
+                historyBranch("userBId", userId, statuses, gameId, beforeMatchedAt, beforeId)))
+                .with(Sort.by(Sort.Direction.DESC, "matchedAt", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Match.class);
+    }
+
+    private static Criteria historyBranch(String userField, String userId, Collection<MatchStatus> statuses,
+                                          String gameId, LocalDateTime beforeMatchedAt, String beforeId) {
+        Criteria branch = Criteria.where(userField).is(userId).and("status").in(statuses);
+        if (beforeMatchedAt != null) {
+            branch.and("matchedAt").lte(beforeMatchedAt)
+                    .orOperator(Criteria.where("matchedAt").lt(beforeMatchedAt), Criteria.where("id").lt(beforeId));
+        }
+        if (gameId != null) {
+            branch.and("gameId").is(gameId);
+        }
+        return branch;
+    }
+
+    /**
+     * Sets the sorted-pair key on matches created before it existed. The partial unique index on PENDING
+     * (pairKey, gameId) is already in place, so PENDING matches that would share a key are settled first: the
+     * newest one of each pair and game is kept and the others are cancelled.
+     */
+    @Override
+    public long backfillPairKeys() {
+        MongoCollection<Document> matches = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Match.class));
+        List<Document> pending = matches.find(new Document("status", MatchStatus.PENDING.name()))
+                .projection(new Document("userAId", 1).append("userBId", 1).append("pairKey", 1)
+                        .append("gameId", 1).append("matchedAt", 1))
+                .into(new ArrayList<>());
+        List<Object> duplicates = duplicatePendingIds(pending);
+        if (!duplicates.isEmpty()) {
+            matches.updateMany(new Document("_id", new Document("$in", duplicates))
+                            .append("status", MatchStatus.PENDING.name()),
+                    new Document("$set", new Document("status", MatchStatus.CANCELLED.name())
+                            .append("cancelledAt", new Date())));
+        }
+
+        Document sortedPair = new Document("$cond", List.of(
+                new Document("$lt", List.of("$userAId", "$userBId")),
+                new Document("$concat", List.of("$userAId", "_", "$userBId")),
+                new Document("$concat", List.of("$userBId", "_", "$userAId"))));
+        return matches.updateMany(new Document("pairKey", new Document("$exists", false)),
+                        List.of(new Document("$set", new Document("pairKey", sortedPair))))
+                .getModifiedCount();
+    }
+
+    /**
+     * The ids of the PENDING matches to cancel so that at most one remains per pair and game: all but the most
+     * recently matched of each group, pairs keyed by their stored pairKey or, when missing, the sorted user ids.
+     */
+    static List<Object> duplicatePendingIds(List<Document> pending) {
+        Map<String, List<Document>> byPairAndGame = new HashMap<>();
+        for (Document match : pending) {
+            String pairKey = match.getString("pairKey");
+            if (pairKey == null) {
+                String userA = match.getString("userAId");
+                String userB = match.getString("userBId");
+                if (userA == null || userB == null) {
+                    continue;
+                }
+                pairKey = userA.compareTo(userB) < 0 ? userA + "_" + userB : userB + "_" + userA;
+            }
+            byPairAndGame.computeIfAbsent(pairKey + "|" + match.getString("gameId"), key -> new ArrayList<>()).add(match);
+        }
+        Comparator<Document> newestFirst = Comparator
+                .comparing((Document match) -> match.getDate("matchedAt"), Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(match -> match.get("_id").toString())
+                .reversed();
+        List<Object> duplicates = new ArrayList<>();
+        for (List<Document> group : byPairAndGame.values()) {
+            group.sort(newestFirst);
+            for (int i = 1; i < group.size(); i++) {
+                duplicates.add(group.get(i).get("_id"));
+            }
+        }
+        return duplicates;
+    }
+}
@@ -0,0 +1,500 @@
+package com.pixelpals.backend.repository;
+
+import com.pixelpals.backend.enumeration.SkillLevel;
+import com.pixelpals.backend.model.AvailabilityBitmap;
+import com.pixelpals.backend.model.Game;
+import com.pixelpals.backend.model.Platform;
+import com.pixelpals.backend.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Struct-of-arrays store of the player profile fields used by matchmaking. Each user owns a dense row: games
+ * and platforms are bitmasks over per-name bit numbers, skills are one byte per game bit, availability is the
+ * user's weekly slot bitmap, and rating/level/online are primitive columns. Posting bitsets over rows per game,
+ * platform, (game, skill level) and availability slot drive candidate selection, so scoring a candidate is
+ * plain bit arithmetic and only the final top-K rows are turned back into objects.
+ * Built once from the users collection at startup and then kept in sync by {@code UserService} and
+ * {@code MatchService}.
+ */
+@Component
+@RequiredArgsConstructor
+public class MatchmakingIndex {
+
+    public static final int GAME_SCORE = 50;
+    public static final int PLATFORM_SCORE = 30;
+    public static final int SKILL_SCORE = 20;
+    public static final int MAX_AVAILABILITY_SCORE = 20;
+
+    private static final SkillLevel[] SKILL_LEVELS = SkillLevel.values();
+    private static final int AVAILABILITY_WORDS = AvailabilityBitmap.WORDS;
+
+    private final UserRepository userRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> rowById = new HashMap<>();
+    private final Deque<Integer> freeRows = new ArrayDeque<>();
+    private final Map<String, Integer> gameBitByName = new HashMap<>();
+    private final List<String> gameNames = new ArrayList<>();
+    private final Map<String, Integer> platformBitByName = new HashMap<>();
+    private final List<String> platformNames = new ArrayList<>();
+
+    private final List<BitSet> usersByGame = new ArrayList<>();
+    private final List<BitSet> usersByPlatform = new ArrayList<>();
+    private final List<BitSet> usersByGameSkill = new ArrayList<>();
+    private final BitSet[] usersBySlot = new BitSet[AvailabilityBitmap.SLOTS_PER_WEEK];
+    private final BitSet online = new BitSet();
+
+    private int rowCount;
+    private int capacity;
+    private int gameWords = 1;
+    private int platformWords = 1;
+    private String[] userIds = new String[0];
+    private String[] usernames = new String[0];
+    private String[] avatarUrls = new String[0];
+    private long[] gameMasks = new long[0];
+    private long[] platformMasks = new long[0];
+    private byte[] skills = new byte[0];
+    private long[] availability = new long[0];
+    private double[] ratings = new double[0];
+    private int[] levels = new int[0];
+
+    {
+        for (int slot = 0; slot < usersBySlot.length; slot++) {
+            usersBySlot[slot] = new BitSet();
+        }
+    }
+
+    public record ProfileMatch(String userId, String username, String avatarUrl, int level, double rating,
+                               boolean online, int score, List<String> commonGames, List<String> commonPlatforms,
+                               String skillLevelForGame) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        userRepository.findAll().forEach(this::index);
+    }
+
+    public void index(User user) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = rowById.get(user.getId());
+            int row = existing != null ? existing : allocateRow(user.getId());
+            clearRow(row);
+            userIds[row] = user.getId();
+            usernames[row] = user.getUsername();
+            avatarUrls[row] = user.getAvatarUrl();
+            ratings[row] = user.getRating();
+            levels[row] = user.getLevel();
+            online.set(row, user.isOnline());
+            if (user.getPreferredGames() != null) {
+                for (Game game : user.getPreferredGames()) {
+                    if (game != null && game.getName() != null) {
+                        int bit = gameBit(game.getName());
+                        setBit(gameMasks, row * gameWords, bit);
+                        usersByGame.get(bit).set(row);
+                    }
+                }
+            }
+            if (user.getPlatforms() != null) {
+                for (Platform platform : user.getPlatforms()) {
+                    if (platform != null && platform.getName() != null) {
+                        int bit = platformBit(platform.getName());
+                        setBit(platformMasks, row * platformWords, bit);
+                        usersByPlatform.get(bit).set(row);
+                    }
+                }
+            }
+            if (user.getSkillLevelMap() != null) {
+                user.getSkillLevelMap().forEach((gameName, level) -> {
+                    if (gameName != null && level != null) {
+                        int bit = gameBit(gameName);
+                        skills[row * gameWords * Long.SIZE + bit] = (byte) (level.ordinal() + 1);
+                        usersByGameSkill.get(bit * SKILL_LEVELS.length + level.ordinal()).set(row);
+                    }
+                });
+            }
+            AvailabilityBitmap slots = AvailabilityBitmap.of(user.getAvailability());
+            slots.writeTo(availability, row * AVAILABILITY_WORDS);
+            slots.forEachSlot(slot -> usersBySlot[slot].set(row));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String userId) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.remove(userId);
+            if (row != null) {
+                clearRow(row);
+                userIds[row] = null;
+                usernames[row] = null;
+                avatarUrls[row] = null;
+                freeRows.push(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateRating(String userId, double rating) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.get(userId);
+            if (row != null) {
+                ratings[row] = rating;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateLevel(String userId, int level) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.get(userId);
+            if (row != null) {
+                levels[row] = level;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void updateOnline(String userId, boolean isOnline) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowById.get(userId);
+            if (row != null) {
+                online.set(row, isOnline);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public AvailabilityBitmap availabilityOf(String userId) {
+        lock.readLock().lock();
+        try {
+            Integer row = rowById.get(userId);
+            return row == null ? AvailabilityBitmap.EMPTY : AvailabilityBitmap.copyOf(availability, row * AVAILABILITY_WORDS);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static int availabilityScore(int overlappingSlots) {
+        return Math.min(overlappingSlots * AvailabilityBitmap.SLOT_MINUTES / 60, MAX_AVAILABILITY_SCORE);
+    }
+
+    /**
+     * Scores every user sharing the game, the platform or the (game, skill level) with the request using the
+     * 50/30/20 weights plus the availability overlap bonus, and returns the best {@code limit} of them ordered
+     * by score, then rating, then online status.
+     */
+    public List<ProfileMatch> findTopMatches(String requesterId, String gameName, String platformName,
+                                             SkillLevel skillLevel, AvailabilityBitmap wantedSlots, int limit) {
+        lock.readLock().lock();
+        try {
+            int gameBit = gameName == null ? -1 : gameBitByName.getOrDefault(gameName, -1);
+            int platformBit = platformName == null ? -1 : platformBitByName.getOrDefault(platformName, -1);
+            int skillCode = gameBit >= 0 && skillLevel != null ? skillLevel.ordinal() + 1 : 0;
+
+            BitSet candidates = new BitSet();
+            if (gameBit >= 0) {
+                candidates.or(usersByGame.get(gameBit));
+            }
+            if (platformBit >= 0) {
+                candidates.or(usersByPlatform.get(platformBit));
+            }
+            if (skillCode > 0) {
+                candidates.or(usersByGameSkill.get(gameBit * SKILL_LEVELS.length + skillLevel.ordinal()));
+            }
+            return rank(requesterId, candidates, true, gameBit, platformBit, skillCode, wantedSlots, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Users whose weekly availability covers {@code slot}, optionally restricted to a game, best rated first.
+     */
+    public List<ProfileMatch> findAvailableAt(String requesterId, int slot, String gameName, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet candidates = (BitSet) usersBySlot[slot].clone();
+            int gameBit = -1;
+            if (gameName != null) {
+                gameBit = gameBitByName.getOrDefault(gameName, -1);
+                if (gameBit < 0) {
+                    return new ArrayList<>();
+                }
+                candidates.and(usersByGame.get(gameBit));
+            }
+            return rank(requesterId, candidates, false, gameBit, -1, 0, AvailabilityBitmap.EMPTY, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<ProfileMatch> rank(String requesterId, BitSet candidates, boolean scoreProfile, int gameBit,
+                                    int platformBit, int skillCode, AvailabilityBitmap wantedSlots, int limit) {
+        Integer requesterRow = rowById.get(requesterId);
+        if (requesterRow != null) {
+            candidates.clear(requesterRow);
+        }
+        boolean scoreAvailability = scoreProfile && !wantedSlots.isEmpty();
+        int skillStride = gameWords * Long.SIZE;
+        RowHeap heap = new RowHeap(limit);
+        for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+            int score = 0;
+            if (scoreProfile) {
+                if (gameBit >= 0 && testBit(gameMasks, row * gameWords, gameBit)) {
+                    score += GAME_SCORE;
+                }
+                if (platformBit >= 0 && testBit(platformMasks, row * platformWords, platformBit)) {
+                    score += PLATFORM_SCORE;
+                }
+                if (skillCode > 0 && skills[row * skillStride + gameBit] == skillCode) {
+                    score += SKILL_SCORE;
+                }
+            }
+            if (scoreAvailability) {
+                score += availabilityScore(wantedSlots.overlap(availability, row * AVAILABILITY_WORDS));
+            }
+            heap.offer(row, score);
+        }
+
+        int ranked = heap.drainBestFirst();
+        List<ProfileMatch> matches = new ArrayList<>(ranked);
+        for (int i = 0; i < ranked; i++) {
+            int row = heap.rows[i];
+            String skillLevelForGame = null;
+            if (gameBit >= 0) {
+                byte code = skills[row * skillStride + gameBit];
+                skillLevelForGame = code == 0 ? null : SKILL_LEVELS[code - 1].name();
+            }
+            matches.add(new ProfileMatch(userIds[row], usernames[row], avatarUrls[row], levels[row], ratings[row],
+                    online.get(row), heap.scores[i],
+                    requesterRow == null ? new ArrayList<>() : commonNames(gameMasks, gameWords, requesterRow, row, gameNames),
+                    requesterRow == null ? new ArrayList<>() : commonNames(platformMasks, platformWords, requesterRow, row, platformNames),
+                    skillLevelForGame));
+        }
+        return matches;
+    }
+
+    private boolean ranksAbove(int rowA, int scoreA, int rowB, int scoreB) {
+        if (scoreA != scoreB) {
+            return scoreA > scoreB;
+        }
+        if (ratings[rowA] != ratings[rowB]) {
+            return ratings[rowA] > ratings[rowB];
+        }
+        return online.get(rowA) && !online.get(rowB);
+    }
+
+    /**
+     * Bounded min-heap of (row, score) pairs: O(limit) memory however many candidates are offered.
+     * {@link #drainBestFirst()} sorts the arrays in place, best first.
+     */
+    private final class RowHeap {
+
+        private final int[] rows;
+        private final int[] scores;
+        private int size;
+
+        private RowHeap(int limit) {
+            rows = new int[Math.max(limit, 0)];
+            scores = new int[Math.max(limit, 0)];
+        }
+
+        void offer(int row, int score) {
+            if (rows.length == 0) {
+                return;
+            }
+            if (size < rows.length) {
+                rows[size] = row;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (ranksAbove(row, score, rows[0], scores[0])) {
+                rows[0] = row;
+                scores[0] = score;
+                siftDown(0, size);
+            }
+        }
+
+        int drainBestFirst() {
+            int count = size;
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            size = 0;
+            return count;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!ranksAbove(rows[parent], scores[parent], rows[index], scores[index])) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int end) {
+            while (true) {
+                int lowest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < end && ranksAbove(rows[lowest], scores[lowest], rows[left], scores[left])) {
+                    lowest = left;
+                }
+                if (right < end && ranksAbove(rows[lowest], scores[lowest], rows[right], scores[right])) {
+                    lowest = right;
+                }
+                if (lowest == index) {
+                    return;
+                }
+                swap(index, lowest);
+                index = lowest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+            int score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    private int allocateRow(String userId) {
+        int row = freeRows.isEmpty() ? rowCount++ : freeRows.pop();
+        ensureCapacity(rowCount);
+        rowById.put(userId, row);
+        return row;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(Math.max(16, capacity * 2), rows);
+        userIds = Arrays.copyOf(userIds, newCapacity);
+        usernames = Arrays.copyOf(usernames, newCapacity);
+        avatarUrls = Arrays.copyOf(avatarUrls, newCapacity);
+        gameMasks = Arrays.copyOf(gameMasks, newCapacity * gameWords);
+        platformMasks = Arrays.copyOf(platformMasks, newCapacity * platformWords);
+        skills = Arrays.copyOf(skills, newCapacity * gameWords * Long.SIZE);
+        availability = Arrays.copyOf(availability, newCapacity * AVAILABILITY_WORDS);
+        ratings = Arrays.copyOf(ratings, newCapacity);
+        levels = Arrays.copyOf(levels, newCapacity);
+        capacity = newCapacity;
+    }
+
+    private void clearRow(int row) {
+        int skillStride = gameWords * Long.SIZE;
+        for (int bit = 0; bit < gameNames.size(); bit++) {
+            if (testBit(gameMasks, row * gameWords, bit)) {
+                usersByGame.get(bit).clear(row);
+            }
+            byte code = skills[row * skillStride + bit];
+            if (code != 0) {
+                usersByGameSkill.get(bit * SKILL_LEVELS.length + code - 1).clear(row);
+            }
+        }
+        for (int bit = 0; bit < platformNames.size(); bit++) {
+            if (testBit(platformMasks, row * platformWords, bit)) {
+                usersByPlatform.get(bit).clear(row);
+            }
+        }
+        AvailabilityBitmap.copyOf(availability, row * AVAILABILITY_WORDS).forEachSlot(slot -> usersBySlot[slot].clear(row));
+        Arrays.fill(gameMasks, row * gameWords, (row + 1) * gameWords, 0L);
+        Arrays.fill(platformMasks, row * platformWords, (row + 1) * platformWords, 0L);
+        Arrays.fill(skills, row * skillStride, (row + 1) * skillStride, (byte) 0);
+        Arrays.fill(availability, row * AVAILABILITY_WORDS, (row + 1) * AVAILABILITY_WORDS, 0L);
+        ratings[row] = 0.0;
+        levels[row] = 0;
+        online.clear(row);
+    }
+
+    private int gameBit(String gameName) {
+        Integer bit = gameBitByName.get(gameName);
+        if (bit != null) {
+            return bit;
+        }
+        int newBit = gameNames.size();
+        gameBitByName.put(gameName, newBit);
+        gameNames.add(gameName);
+        usersByGame.add(new BitSet());
+        for (int i = 0; i < SKILL_LEVELS.length; i++) {
+            usersByGameSkill.add(new BitSet());
+        }
+        if (newBit >= gameWords * Long.SIZE) {
+            int newWords = gameWords + 1;
+            gameMasks = restride(gameMasks, gameWords, newWords);
+            byte[] widenedSkills = new byte[capacity * newWords * Long.SIZE];
+            for (int row = 0; row < rowCount; row++) {
+                System.arraycopy(skills, row * gameWords * Long.SIZE, widenedSkills, row * newWords * Long.SIZE, gameWords * Long.SIZE);
+            }
+            skills = widenedSkills;
+            gameWords = newWords;
+        }
+        return newBit;
+    }
+
+    private int platformBit(String platformName) {
+        Integer bit = platformBitByName.get(platformName);
+        if (bit != null) {
+            return bit;
+        }
+        int newBit = platformNames.size();
+        platformBitByName.put(platformName, newBit);
+        platformNames.add(platformName);
+        usersByPlatform.add(new BitSet());
+        if (newBit >= platformWords * Long.SIZE) {
+            platformMasks = restride(platformMasks, platformWords, platformWords + 1);
+            platformWords++;
+        }
+        return newBit;
+    }
+
+    private long[] restride(long[] masks, int oldWords, int newWords) {
+        long[] widened = new long[capacity * newWords];
+        for (int row = 0; row < rowCount; row++) {
+            System.arraycopy(masks, row * oldWords, widened, row * newWords, oldWords);
+        }
+        return widened;
+    }
+
+    private static List<String> commonNames(long[] masks, int words, int rowA, int rowB, List<String> names) {
+        List<String> common = new ArrayList<>();
+        for (int w = 0; w < words; w++) {
+            long shared = masks[rowA * words + w] & masks[rowB * words + w];
+            while (shared != 0L) {
+                common.add(names.get(w * Long.SIZE + Long.numberOfTrailingZeros(shared)));
+                shared &= shared - 1;
+            }
+        }
+        return common;
+    }
+
+    private static boolean testBit(long[] masks, int offset, int bit) {
+        return (masks[offset + bit / Long.SIZE] & (1L << (bit % Long.SIZE))) != 0L;
+    }
+
+    private static void setBit(long[] masks, int offset, int bit) {
+        masks[offset + bit / Long.SIZE] |= 1L << (bit % Long.SIZE);
+    }
+}
@@ -0,0 +1,7 @@
+package com.pixelpals.backend.repository;
+import com.pixelpals.backend.model.MessageBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+@Repository
+public interface MessageBucketRepository extends MongoRepository<MessageBucket, String>, MessageBucketRepositoryCustom {
+}
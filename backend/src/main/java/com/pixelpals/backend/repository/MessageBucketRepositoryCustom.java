@@ -0,0 +1,11 @@
+package com.pixelpals.backend.repository;
+import com.pixelpals.backend.model.Message;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+public interface MessageBucketRepositoryCustom {
+    List<Message> findPageBefore(String chatRoomId, LocalDateTime beforeTimestamp, String beforeId, int limit);
+    List<Message> findAfterSeq(String chatRoomId, long seq, int limit);
+    long archiveOlderThan(String chatRoomId, LocalDateTime cutoff);
+    Stream<Message> streamArchived(String chatRoomId);
+}
@@ -0,0 +1,182 @@
+package com.pixelpals.backend.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pixelpals.backend.model.Message;
+import com.pixelpals.backend.model.MessageBucket;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@RequiredArgsConstructor
+public class MessageBucketRepositoryCustomImpl implements MessageBucketRepositoryCustom {
+
+    private static final TypeReference<List<Message>> MESSAGE_LIST = new TypeReference<>() {
+    };
+    private static final Comparator<Message> CHRONOLOGICAL =
+            Comparator.comparing(Message::getTimestamp).thenComparing(Message::getId);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Archived messages of the room older than the (timestamp, id) position, newest first, opening buckets
+     * from the latest day backwards until {@code limit} messages are found.
+     */
+    @Override
+    public List<Message> findPageBefore(String chatRoomId, LocalDateTime beforeTimestamp, String beforeId, int limit) {
+        Criteria criteria = Criteria.where("chatRoomId").is(chatRoomId);
+        if (beforeTimestamp != null) {
+            criteria.and("firstTimestamp").lte(beforeTimestamp);
+        }
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.DESC, "lastTimestamp"));
+        List<Message> page = new ArrayList<>(limit);
+        try (Stream<MessageBucket> buckets = mongoTemplate.stream(query, MessageBucket.class)) {
+            Iterator<MessageBucket> iterator = buckets.iterator();
+            while (page.size() < limit && iterator.hasNext()) {
+                List<Message> messages = decode(iterator.next().getMessages());
+                for (int i = messages.size() - 1; i >= 0 && page.size() < limit; i--) {
+                    Message message = messages.get(i);
+                    if (beforeTimestamp == null || isBefore(message, beforeTimestamp, beforeId)) {
+                        page.add(message);
+                    }
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Archived messages of the room with a sequence number above {@code seq}, in sequence order.
+     */
+    @Override
+    public List<Message> findAfterSeq(String chatRoomId, long seq, int limit) {
+        Query query = Query.query(Criteria.where("chatRoomId").is(chatRoomId).and("lastSeq").gt(seq))
+                .with(Sort.by(Sort.Direction.ASC, "lastSeq"));
+        List<Message> page = new ArrayList<>(limit);
+        try (Stream<MessageBucket> buckets = mongoTemplate.stream(query, MessageBucket.class)) {
+            Iterator<MessageBucket> iterator = buckets.iterator();
+            while (page.size() < limit && iterator.hasNext()) {
+                decode(iterator.next().getMessages()).stream()
+                        .filter(message -> message.getSeq() != null && message.getSeq() > seq)
+                        .sorted(Comparator.comparing(Message::getSeq))
+                        .limit(limit - page.size())
+                        .forEach(page::add);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Every archived message of the room, oldest first. Buckets are fetched and decompressed one at a time, so
+     * at most one day of the room is held in memory. The caller must close the stream.
+     */
+    @Override
+    public Stream<Message> streamArchived(String chatRoomId) {
+        Query query = Query.query(Criteria.where("chatRoomId").is(chatRoomId))
+                .with(Sort.by(Sort.Direction.ASC, "day"))
+                .cursorBatchSize(1);
+        return mongoTemplate.stream(query, MessageBucket.class)
+                .flatMap(bucket -> decode(bucket.getMessages()).stream());
+    }
+
+    /**
+     * Moves the room's messages older than {@code cutoff} into its day buckets and deletes them from
+     * {@code messages}. A day is written before its messages are removed, so an interrupted run leaves
+     * duplicates that the next run merges away rather than losing messages.
+     */
+    @Override
+    public long archiveOlderThan(String chatRoomId, LocalDateTime cutoff) {
+        Query query = Query.query(Criteria.where("chatRoomId").is(chatRoomId).and("timestamp").lt(cutoff))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp", "id"));
+        long archived = 0;
+        List<Message> day = new ArrayList<>();
+        try (Stream<Message> messages = mongoTemplate.stream(query, Message.class)) {
+            Iterator<Message> iterator = messages.iterator();
+            while (iterator.hasNext()) {
+                Message message = iterator.next();
+                if (!day.isEmpty() && !day.get(0).getTimestamp().toLocalDate().equals(message.getTimestamp().toLocalDate())) {
+                    archived += archiveDay(chatRoomId, day);
+                    day.clear();
+                }
+                day.add(message);
+            }
+        }
+        if (!day.isEmpty()) {
+            archived += archiveDay(chatRoomId, day);
+        }
+        return archived;
+    }
+
+    private long archiveDay(String chatRoomId, List<Message> messages) {
+        LocalDate day = messages.get(0).getTimestamp().toLocalDate();
+        MessageBucket bucket = mongoTemplate.findOne(
+                Query.query(Criteria.where("chatRoomId").is(chatRoomId).and("day").is(day)), MessageBucket.class);
+        Map<String, Message> merged = new LinkedHashMap<>();
+        if (bucket != null) {
+            decode(bucket.getMessages()).forEach(message -> merged.put(message.getId(), message));
+        } else {
+            bucket = new MessageBucket();
+            bucket.setChatRoomId(chatRoomId);
+            bucket.setDay(day);
+        }
+        messages.forEach(message -> merged.put(message.getId(), message));
+        List<Message> ordered = new ArrayList<>(merged.values());
+        ordered.sort(CHRONOLOGICAL);
+
+        bucket.setCount(ordered.size());
+        bucket.setFirstTimestamp(ordered.get(0).getTimestamp());
+        bucket.setLastTimestamp(ordered.get(ordered.size() - 1).getTimestamp());
+        bucket.setFirstSeq(ordered.stream().map(Message::getSeq).filter(Objects::nonNull).min(Long::compare).orElse(null));
+        bucket.setLastSeq(ordered.stream().map(Message::getSeq).filter(Objects::nonNull).max(Long::compare).orElse(null));
+        bucket.setMessages(encode(ordered));
+        mongoTemplate.save(bucket);
+
+        List<String> ids = messages.stream().map(Message::getId).toList();
+        return mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)), Message.class).getDeletedCount();
+    }
+
+    private static boolean isBefore(Message message, LocalDateTime beforeTimestamp, String beforeId) {
+        int cmp = message.getTimestamp().compareTo(beforeTimestamp);
+        return cmp < 0 || (cmp == 0 && message.getId().compareTo(beforeId) < 0);
+    }
+
+    private byte[] encode(List<Message> messages) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, messages);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Compressione del bucket di messaggi fallita.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<Message> decode(byte[] messages) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(messages))) {
+            return objectMapper.readValue(in, MESSAGE_LIST);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lettura del bucket di messaggi fallita.", e);
+        }
+    }
+}
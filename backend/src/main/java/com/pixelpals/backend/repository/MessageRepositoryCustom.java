@@ -0,0 +1,16 @@
+package com.pixelpals.backend.repository;
+import com.pixelpals.backend.model.Message;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+public interface MessageRepositoryCustom {
+    long markRead(String chatRoomId, String receiverId, LocalDateTime readAt);
+    List<Message> findPageBefore(String chatRoomId, LocalDateTime beforeTimestamp, String beforeId, int limit);
+    long migrateEmbeddedParticipants();
+    Stream<Message> streamChatRoom(String chatRoomId, int batchSize);
+    List<ScoredMessage> searchText(String chatRoomId, String text, int limit, long maxTimeMs);
+    void ensureSearchIndex();
+
+    record ScoredMessage(Message message, double score) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.pixelpals.backend.repository;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.pixelpals.backend.model.Message;
+import com.pixelpals.backend.model.User;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class MessageRepositoryCustomImpl implements MessageRepositoryCustom {
+
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+    private static final String SEARCH_INDEX = "chatRoom_content_text";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long markRead(String chatRoomId, String receiverId, LocalDateTime readAt) {
+        Query unread = Query.query(Criteria.where("chatRoomId").is(chatRoomId)
+                .and("receiverId").is(receiverId)
+                .and("read").is(false)
+                .and("timestamp").lte(readAt));
+        return mongoTemplate.updateMulti(unread, new Update().set("read", true), Message.class).getModifiedCount();
+    }
+
+    /**
+     * Up to {@code limit} messages of the room older than the (timestamp, id) position, newest first; without a
+     * position it starts from the latest message. Served by the (chatRoomId, timestamp, _id) index.
+     */
+    @Override
+    public List<Message> findPageBefore(String chatRoomId, LocalDateTime beforeTimestamp, String beforeId, int limit) {
+        Criteria criteria = Criteria.where("chatRoomId").is(chatRoomId);
+        if (beforeTimestamp != null) {
+            criteria.and("timestamp").lte(beforeTimestamp)
+                    .orOperator(Criteria.where("timestamp").lt(beforeTimestamp), Criteria.where("id").lt(beforeId));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "timestamp", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Message.class);
+    }
+
+    /**
+     * Every hot message of the room, oldest first, read through a cursor fetching {@code batchSize} documents at
+     * a time. The caller must close the stream.
+     */
+    @Override
+    public Stream<Message> streamChatRoom(String chatRoomId, int batchSize) {
+        Query query = Query.query(Criteria.where("chatRoomId").is(chatRoomId))
+                .with(Sort.by(Sort.Direction.ASC, "timestamp", "id"))
+                .cursorBatchSize(batchSize);
+        return mongoTemplate.stream(query, Message.class);
+    }
+
+    /**
+     * Text search within one room, best matches first, ties on score ordered by id. The room is the equality
+     * prefix of the text index, so only that room's entries are read; the query is cut off after
+     * {@code maxTimeMs}.
+     */
+    @Override
+    public List<ScoredMessage> searchText(String chatRoomId, String text, int limit, long maxTimeMs) {
+        Document filter = new Document("chatRoomId", chatRoomId)
+                .append("$text", new Document("$search", text));
+        Document score = new Document("score", new Document("$meta", "textScore"));
+        List<ScoredMessage> results = new ArrayList<>(limit);
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Message.class))
+                .find(filter)
+                .projection(score)
+                .sort(new Document(score).append("_id", 1))
+                .limit(limit)
+                .maxTime(maxTimeMs, TimeUnit.MILLISECONDS)
+                .forEach(document -> results.add(new ScoredMessage(
+                        mongoTemplate.getConverter().read(Message.class, document),
+                        ((Number) document.get("score")).doubleValue())));
+        return results;
+    }
+
+    /**
+     * Creates the (chatRoomId, content) text index, without stemming or stop words, replacing the earlier
+     * collection-wide text index: a collection can hold only one text index.
+     */
+    @Override
+    public void ensureSearchIndex() {
+        MongoCollection<Document> messages = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Message.class));
+        for (Document index : messages.listIndexes()) {
+            Document key = index.get("key", Document.class);
+            if (key != null && key.containsKey("_fts") && !SEARCH_INDEX.equals(index.getString("name"))) {
+                messages.dropIndex(index.getString("name"));
+            }
+        }
+        messages.createIndex(Indexes.compoundIndex(Indexes.ascending("chatRoomId"), Indexes.text("content")),
+                new IndexOptions().name(SEARCH_INDEX).defaultLanguage("none"));
+    }
+
+    /**
+     * Rewrites messages still holding sender/receiver DBRefs into the inline id and username fields, a batch at
+     * a time, resolving the usernames of each batch with one query.
+     */
+    @Override
+    public long migrateEmbeddedParticipants() {
+        MongoCollection<Document> messages = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Message.class));
+        MongoCollection<Document> users = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class));
+        long migrated = 0;
+        List<Document> batch = new ArrayList<>();
+        try (MongoCursor<Document> cursor = messages.find(new Document("sender", new Document("$exists", true)))
+                .projection(new Document("sender", 1).append("receiver", 1))
+                .iterator()) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() == MIGRATION_BATCH_SIZE || !cursor.hasNext()) {
+                    migrated += migrateBatch(messages, users, batch);
+                    batch.clear();
+                }
+            }
+        }
+        return migrated;
+    }
+
+    private static long migrateBatch(MongoCollection<Document> messages, MongoCollection<Document> users, List<Document> batch) {
+        Set<Object> userIds = new HashSet<>();
+        batch.forEach(message -> {
+            userIds.add(referencedId(message.get("sender")));
+            userIds.add(referencedId(message.get("receiver")));
+        });
+        userIds.remove(null);
+        Map<String, String> usernames = new HashMap<>();
+        users.find(new Document("_id", new Document("$in", userIds)))
+                .projection(new Document("username", 1))
+                .forEach(user -> usernames.put(user.get("_id").toString(), user.getString("username")));
+
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        for (Document message : batch) {
+            Object senderId = referencedId(message.get("sender"));
+            Object receiverId = referencedId(message.get("receiver"));
+            Document set = new Document();
+            if (senderId != null) {
+                set.append("senderId", senderId.toString()).append("senderUsername", usernames.get(senderId.toString()));
+            }
+            if (receiverId != null) {
+                set.append("receiverId", receiverId.toString()).append("receiverUsername", usernames.get(receiverId.toString()));
+            }
+            Document update = new Document("$unset", new Document("sender", "").append("receiver", ""));
+            if (!set.isEmpty()) {
+                update.append("$set", set);
+            }
+            updates.add(new UpdateOneModel<>(new Document("_id", message.get("_id")), update));
+        }
+        return messages.bulkWrite(updates).getModifiedCount();
+    }
+
+    private static Object referencedId(Object ref) {
+        return ref instanceof DBRef dbRef ? dbRef.getId()
+                : ref instanceof Document document ? document.get("$id") : null;
+    }
+}
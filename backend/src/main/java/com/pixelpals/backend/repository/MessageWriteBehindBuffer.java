@@ -0,0 +1,229 @@
+package com.pixelpals.backend.repository;
+
+import com.pixelpals.backend.model.Message;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persists chat messages off the send path. Messages are queued with their id already assigned and a single
+ * writer thread inserts them in batches of up to {@code batch-size}, waiting at most {@code max-latency-ms}
+ * for a batch to fill. When the queue is full the sender waits up to {@code offer-timeout-ms} and then
+ * writes its message itself; on shutdown everything still queued is written before the context closes.
+ * <p>
+ * The receivers' unread counters are incremented once per written batch rather than once per send. A message
+ * that cannot be written is retried up to {@code retry-attempts} times with a doubling backoff; if it still
+ * fails, the buffer stops taking messages and senders write synchronously, seeing any error themselves, until
+ * one of those writes succeeds.
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageWriteBehindBuffer.class);
+
+    private static final Duration FLUSH_MARGIN = Duration.ofMinutes(1);
+    private static final long MAX_RETRY_BACKOFF_MS = 5000;
+
+    private final MessageRepository messageRepository;
+    private final UnreadCounterRepository unreadCounterRepository;
+
+    @Value("${pixelpals.messages.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${pixelpals.messages.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${pixelpals.messages.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${pixelpals.messages.write-behind.max-latency-ms:50}")
+    private long maxLatencyMs;
+
+    @Value("${pixelpals.messages.write-behind.offer-timeout-ms:1000}")
+    private long offerTimeoutMs;
+
+    @Value("${pixelpals.messages.write-behind.retry-attempts:5}")
+    private int retryAttempts;
+
+    @Value("${pixelpals.messages.write-behind.retry-backoff-ms:100}")
+    private long retryBackoffMs;
+
+    private final LongAdder failedWrites = new LongAdder();
+    private volatile boolean degraded;
+
+    private BlockingQueue<Message> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "message-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * How far behind the clock queued messages can be: a message timestamped earlier than this has been handed
+     * to the writer and written, give or take a slow batch, which {@code FLUSH_MARGIN} covers.
+     */
+    public Duration flushHorizon() {
+        return enabled ? Duration.ofMillis(maxLatencyMs + offerTimeoutMs).plus(FLUSH_MARGIN) : Duration.ZERO;
+    }
+
+    /**
+     * Messages that could not be written even after retrying.
+     */
+    public long getFailedWrites() {
+        return failedWrites.sum();
+    }
+
+    public void submit(Message message) {
+        try {
+            if (running && !degraded && queue.offer(message, offerTimeoutMs, TimeUnit.MILLISECONDS)
+                    && (running || !queue.remove(message))) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        messageRepository.insert(message);
+        degraded = false;
+        unreadCounterRepository.increment(message.getReceiverId(), message.getChatRoomId());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Message> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    private void writeLoop() {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Message first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Message next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserts the batch in one call; if that fails, retries message by message so one bad document or an id
+     * that was already written does not hold back the rest, backing off between rounds. Then counts the written
+     * messages as unread.
+     */
+    private void write(List<Message> batch) {
+        List<Message> pending;
+        try {
+            messageRepository.insert(batch);
+            pending = List.of();
+        } catch (RuntimeException e) {
+            logger.warn("Batch insert of {} messages failed, retrying one by one: {}", batch.size(), e.getMessage());
+            pending = batch;
+        }
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            pending = insertEach(pending);
+            if (pending.isEmpty() || attempt >= retryAttempts || !backOff(attempt)) {
+                break;
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            failedWrites.add(pending.size());
+            degraded = true;
+            for (Message message : pending) {
+                logger.error("Could not write message {} for chat room {} after {} attempts; senders now write synchronously",
+                        message.getId(), message.getChatRoomId(), retryAttempts);
+            }
+        }
+        List<Message> written = new ArrayList<>(batch);
+        written.removeAll(pending);
+        try {
+            unreadCounterRepository.incrementForMessages(written);
+        } catch (RuntimeException e) {
+            logger.warn("Unread counters of {} messages not updated: {}", written.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Inserts each message on its own and returns the ones that failed for a reason other than being written
+     * already.
+     */
+    private List<Message> insertEach(List<Message> messages) {
+        List<Message> failed = new ArrayList<>();
+        for (Message message : messages) {
+            try {
+                messageRepository.insert(message);
+            } catch (DuplicateKeyException ignored) {
+            } catch (RuntimeException e) {
+                logger.warn("Insert of message {} failed: {}", message.getId(), e.getMessage());
+                failed.add(message);
+            }
+        }
+        return failed;
+    }
+
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(Math.min(MAX_RETRY_BACKOFF_MS, retryBackoffMs << Math.min(attempt - 1, 20)));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
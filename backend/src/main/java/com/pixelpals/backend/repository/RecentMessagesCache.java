@@ -0,0 +1,200 @@
+package com.pixelpals.backend.repository;
+
+import com.pixelpals.backend.dto.MessageDTO;
+import com.pixelpals.backend.dto.RecentMessagesCacheStatsDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latest {@code per-room} messages of recently active chat rooms, kept in a ring buffer per room. Each ring
+ * holds one message more than {@code per-room} so a full page can be served together with the look-ahead
+ * message that tells whether an older page exists. Rooms are evicted least recently used first once the cache
+ * holds more than {@code max-messages} messages overall. A room can answer a "latest N" request when it holds
+ * at least N messages, or when it is known to hold the whole conversation.
+ * <p>
+ * The cache keeps its own copies of the messages and hands out copies, so marking messages read here never
+ * changes a DTO a caller is still holding, and a caller changing a returned DTO never changes the cache.
+ */
+@Component
+public class RecentMessagesCache {
+
+    private final int perRoom;
+    private final int maxMessages;
+    private final Map<String, Room> rooms = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private int cachedMessages;
+
+    public RecentMessagesCache(@Value("${pixelpals.messages.recent-cache.per-room:50}") int perRoom,
+                               @Value("${pixelpals.messages.recent-cache.max-messages:50000}") int maxMessages) {
+        this.perRoom = Math.max(1, perRoom) + 1;
+        this.maxMessages = Math.max(this.perRoom, maxMessages);
+    }
+
+    /**
+     * Up to {@code count} of the room's latest messages, newest first, if the cache can answer for them.
+     */
+    public synchronized Optional<List<MessageDTO>> latest(String chatRoomId, int count) {
+        Room room = rooms.get(chatRoomId);
+        if (room == null || (room.size < count && !room.complete)) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(room.newestFirst(count).stream().map(RecentMessagesCache::copy).toList());
+    }
+
+    /**
+     * Adds a newly written message to its room, unless the room already holds a message with the same id.
+     */
+    public synchronized void append(String chatRoomId, MessageDTO message) {
+        Room room = rooms.computeIfAbsent(chatRoomId, id -> new Room(perRoom));
+        if (room.contains(message.getId())) {
+            return;
+        }
+        if (room.add(copy(message))) {
+            cachedMessages++;
+        }
+        evictColdRooms();
+    }
+
+    /**
+     * Fills a room from a page read from the database, newest first. {@code complete} says the page holds every
+     * message of the room. A room that is already complete is kept; a partial one, such as a room started by
+     * {@link #append}, is replaced, keeping any appended message newer than the page.
+     */
+    public synchronized void seed(String chatRoomId, List<MessageDTO> newestFirst, boolean complete) {
+        Room existing = rooms.get(chatRoomId);
+        if (existing != null && existing.complete) {
+            return;
+        }
+        Room room = new Room(perRoom);
+        for (int i = Math.min(newestFirst.size(), perRoom) - 1; i >= 0; i--) {
+            room.add(copy(newestFirst.get(i)));
+        }
+        room.complete = complete && newestFirst.size() <= perRoom;
+        if (existing != null) {
+            MessageDTO newestSeeded = newestFirst.isEmpty() ? null : newestFirst.get(0);
+            List<MessageDTO> appended = existing.newestFirst(existing.size);
+            for (int i = appended.size() - 1; i >= 0; i--) {
+                if (newestSeeded == null || isNewer(appended.get(i), newestSeeded)) {
+                    room.add(appended.get(i));
+                }
+            }
+            cachedMessages -= existing.size;
+        }
+        rooms.put(chatRoomId, room);
+        cachedMessages += room.size;
+        evictColdRooms();
+    }
+
+    public synchronized void markRead(String chatRoomId, String receiverId, LocalDateTime readAt) {
+        Room room = rooms.get(chatRoomId);
+        if (room != null) {
+            room.markRead(receiverId, readAt);
+        }
+    }
+
+    public synchronized RecentMessagesCacheStatsDTO getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        return RecentMessagesCacheStatsDTO.builder()
+                .rooms(rooms.size())
+                .cachedMessages(cachedMessages)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount))
+                .build();
+    }
+
+    private static MessageDTO copy(MessageDTO message) {
+        return MessageDTO.builder()
+                .id(message.getId())
+                .senderId(message.getSenderId())
+                .senderUsername(message.getSenderUsername())
+                .receiverId(message.getReceiverId())
+                .receiverUsername(message.getReceiverUsername())
+                .content(message.getContent())
+                .timestamp(message.getTimestamp())
+                .read(message.isRead())
+                .chatRoomId(message.getChatRoomId())
+                .seq(message.getSeq())
+                .build();
+    }
+
+    private static boolean isNewer(MessageDTO message, MessageDTO than) {
+        int cmp = message.getTimestamp().compareTo(than.getTimestamp());
+        return cmp > 0 || (cmp == 0 && message.getId().compareTo(than.getId()) > 0);
+    }
+
+    private void evictColdRooms() {
+        Iterator<Room> iterator = rooms.values().iterator();
+        while (cachedMessages > maxMessages && iterator.hasNext()) {
+            cachedMessages -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    private static final class Room {
+
+        private final MessageDTO[] ring;
+        private int head;
+        private int size;
+        private boolean complete;
+
+        private Room(int capacity) {
+            this.ring = new MessageDTO[capacity];
+        }
+
+        /**
+         * Returns true if the room grew, false if the oldest message was overwritten.
+         */
+        boolean add(MessageDTO message) {
+            ring[head] = message;
+            head = (head + 1) % ring.length;
+            if (size < ring.length) {
+                size++;
+                return true;
+            }
+            complete = false;
+            return false;
+        }
+
+        boolean contains(String messageId) {
+            for (int i = 1; i <= size; i++) {
+                if (ring[(head - i + ring.length) % ring.length].getId().equals(messageId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<MessageDTO> newestFirst(int count) {
+            int n = Math.min(count, size);
+            List<MessageDTO> messages = new ArrayList<>(n);
+            for (int i = 1; i <= n; i++) {
+                messages.add(ring[(head - i + ring.length) % ring.length]);
+            }
+            return messages;
+        }
+
+        void markRead(String receiverId, LocalDateTime readAt) {
+            for (int i = 1; i <= size; i++) {
+                MessageDTO message = ring[(head - i + ring.length) % ring.length];
+                if (receiverId.equals(message.getReceiverId()) && message.getTimestamp() != null
+                        && !message.getTimestamp().isAfter(readAt)) {
+                    message.setRead(true);
+                }
+            }
+        }
+    }
+}
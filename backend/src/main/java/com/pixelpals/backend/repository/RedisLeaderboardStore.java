@@ -0,0 +1,60 @@
+package com.pixelpals.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Leaderboards as Redis sorted sets, shared by every instance of the backend. Scores are stored negated and
+ * read in ascending order: Redis orders equal scores by member, so ascending (-score, userId) gives the highest
+ * score first with ties by user id ascending, as {@link LeaderboardStore} requires.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "pixelpals.leaderboard.store", havingValue = "redis")
+public class RedisLeaderboardStore implements LeaderboardStore {
+
+    private static final String KEY_PREFIX = "pixelpals:leaderboard:v2:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void put(String board, String userId, double score) {
+        redisTemplate.opsForZSet().add(KEY_PREFIX + board, userId, -score);
+    }
+
+    @Override
+    public void remove(String board, String userId) {
+        redisTemplate.opsForZSet().remove(KEY_PREFIX + board, userId);
+    }
+
+    @Override
+    public List<Entry> top(String board, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+                redisTemplate.opsForZSet().rangeWithScores(KEY_PREFIX + board, 0, limit - 1);
+        List<Entry> entries = new ArrayList<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                entries.add(new Entry(tuple.getValue(), tuple.getScore() == null ? 0 : -tuple.getScore(), entries.size() + 1));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public Optional<Entry> find(String board, String userId) {
+        Long rank = redisTemplate.opsForZSet().rank(KEY_PREFIX + board, userId);
+        Double score = redisTemplate.opsForZSet().score(KEY_PREFIX + board, userId);
+        if (rank == null || score == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Entry(userId, -score, rank + 1));
+    }
+}
@@ -0,0 +1,19 @@
+package com.pixelpals.backend.repository;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import java.util.ArrayList;
+import java.util.List;
+@Data
+public class ScoredUserProjection {
+    @Id
+    private String id;
+    private String username;
+    private int level;
+    private double rating;
+    private String avatarUrl;
+    private boolean isOnline;
+    private int compatibilityScore;
+    private String skillLevelForGame;
+    private List<String> platformIds = new ArrayList<>();
+    private List<String> preferredGameIds = new ArrayList<>();
+}
@@ -0,0 +1,10 @@
+package com.pixelpals.backend.repository;
+import com.pixelpals.backend.model.UnreadCounter;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+@Repository
+public interface UnreadCounterRepository extends MongoRepository<UnreadCounter, String>, UnreadCounterRepositoryCustom {
+    List<UnreadCounter> findByUserIdAndCountGreaterThan(String userId, int count);
+    List<UnreadCounter> findByChatRoomId(String chatRoomId);
+}
@@ -0,0 +1,11 @@
+package com.pixelpals.backend.repository;
+import com.pixelpals.backend.model.Message;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+public interface UnreadCounterRepositoryCustom {
+    int increment(String userId, String chatRoomId);
+    void incrementForMessages(Collection<Message> messages);
+    void markRead(String userId, String chatRoomId, LocalDateTime readAt);
+    long backfillFromMessages();
+}
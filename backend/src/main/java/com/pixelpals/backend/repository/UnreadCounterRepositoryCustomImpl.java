@@ -0,0 +1,113 @@
+package com.pixelpals.backend.repository;
+
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.pixelpals.backend.model.Message;
+import com.pixelpals.backend.model.UnreadCounter;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class UnreadCounterRepositoryCustomImpl implements UnreadCounterRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public int increment(String userId, String chatRoomId) {
+        UnreadCounter counter = mongoTemplate.findAndModify(roomOf(userId, chatRoomId),
+                new Update().inc("count", 1),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                UnreadCounter.class);
+        return counter == null ? 0 : counter.getCount();
+    }
+
+    /**
+     * Counts already written messages for their receivers in one bulk write. A message only counts if it is newer
+     * than the room's read watermark, so a batch written after the receiver opened the chat does not bring back
+     * messages they have already seen.
+     */
+    @Override
+    public void incrementForMessages(Collection<Message> messages) {
+        Map<List<String>, List<Object>> timestampsByRoom = new LinkedHashMap<>();
+        for (Message message : messages) {
+            timestampsByRoom.computeIfAbsent(List.of(message.getReceiverId(), message.getChatRoomId()), key -> new ArrayList<>())
+                    .add(mongoTemplate.getConverter().convertToMongoType(message.getTimestamp()));
+        }
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        timestampsByRoom.forEach((room, timestamps) -> {
+            Document unseen = new Document("$size", new Document("$filter", new Document("input", timestamps)
+                    .append("cond", new Document("$gt", List.of("$$this",
+                            new Document("$ifNull", List.of("$lastReadAt", new Date(0))))))));
+            updates.add(new UpdateOneModel<>(
+                    new Document("userId", room.get(0)).append("chatRoomId", room.get(1)),
+                    List.of(new Document("$set", new Document("count",
+                            new Document("$add", List.of(new Document("$ifNull", List.of("$count", 0)), unseen))))),
+                    new UpdateOptions().upsert(true)));
+        });
+        if (!updates.isEmpty()) {
+            mongoTemplate.getCollection(mongoTemplate.getCollectionName(UnreadCounter.class)).bulkWrite(updates);
+        }
+    }
+
+    /**
+     * Zeroes the counter and moves the room's read watermark forward to {@code readAt}.
+     */
+    @Override
+    public void markRead(String userId, String chatRoomId, LocalDateTime readAt) {
+        mongoTemplate.upsert(roomOf(userId, chatRoomId),
+                new Update().set("count", 0).max("lastReadAt", readAt),
+                UnreadCounter.class);
+    }
+
+    /**
+     * Seeds the counters from the unread messages when the collection is still empty.
+     */
+    @Override
+    public long backfillFromMessages() {
+        if (mongoTemplate.estimatedCount(UnreadCounter.class) > 0) {
+            return 0;
+        }
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("read", false)),
+                new Document("$group", new Document("_id", new Document("userId", "$receiverId")
+                        .append("chatRoomId", "$chatRoomId"))
+                        .append("count", new Document("$sum", 1))));
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Message.class))
+                .aggregate(pipeline)
+                .forEach(row -> {
+                    Document key = (Document) row.get("_id");
+                    if (key.get("userId") == null || key.getString("chatRoomId") == null) {
+                        return;
+                    }
+                    updates.add(new UpdateOneModel<>(
+                            new Document("userId", key.get("userId").toString()).append("chatRoomId", key.getString("chatRoomId")),
+                            new Document("$set", new Document("count", row.getInteger("count", 0))),
+                            new UpdateOptions().upsert(true)));
+                });
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(UnreadCounter.class))
+                .bulkWrite(updates)
+                .getUpserts().size();
+    }
+
+    private static Query roomOf(String userId, String chatRoomId) {
+        return Query.query(Criteria.where("userId").is(userId).and("chatRoomId").is(chatRoomId));
+    }
+}
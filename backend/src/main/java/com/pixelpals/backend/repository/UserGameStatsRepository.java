@@ -0,0 +1,10 @@
+package com.pixelpals.backend.repository;
+import com.pixelpals.backend.model.UserGameStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+@Repository
+public interface UserGameStatsRepository extends MongoRepository<UserGameStats, String>, UserGameStatsRepositoryCustom {
+    List<UserGameStats> findByUserId(String userId);
+    void deleteByUserId(String userId);
+}
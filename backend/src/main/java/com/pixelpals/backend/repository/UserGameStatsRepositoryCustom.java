@@ -0,0 +1,6 @@
+package com.pixelpals.backend.repository;
+import com.pixelpals.backend.model.UserGameStats;
+public interface UserGameStatsRepositoryCustom {
+    UserGameStats increment(String userId, String gameId, int matches, double ratingPoints, int ratings);
+    long backfillFromHistory();
+}
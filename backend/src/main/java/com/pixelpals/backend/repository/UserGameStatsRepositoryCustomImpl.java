@@ -0,0 +1,86 @@
+package com.pixelpals.backend.repository;
+
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.pixelpals.backend.enumeration.MatchStatus;
+import com.pixelpals.backend.model.Match;
+import com.pixelpals.backend.model.Rating;
+import com.pixelpals.backend.model.UserGameStats;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class UserGameStatsRepositoryCustomImpl implements UserGameStatsRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Adds to the user's totals for the game in one atomic update and returns the new totals, so every backend
+     * instance ranks the same values.
+     */
+    @Override
+    public UserGameStats increment(String userId, String gameId, int matches, double ratingPoints, int ratings) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("userId").is(userId).and("gameId").is(gameId)),
+                new Update().inc("matches", matches).inc("ratingPoints", ratingPoints).inc("ratings", ratings),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                UserGameStats.class);
+    }
+
+    /**
+     * Seeds the totals from completed matches and submitted ratings when the collection is still empty.
+     */
+    @Override
+    public long backfillFromHistory() {
+        if (mongoTemplate.estimatedCount(UserGameStats.class) > 0) {
+            return 0;
+        }
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        List<Document> completedByPlayer = List.of(
+                new Document("$match", new Document("status", MatchStatus.COMPLETED.name())
+                        .append("gameId", new Document("$ne", null))),
+                new Document("$project", new Document("gameId", 1).append("players", List.of("$userAId", "$userBId"))),
+                new Document("$unwind", "$players"),
+                new Document("$group", new Document("_id", new Document("userId", "$players").append("gameId", "$gameId"))
+                        .append("matches", new Document("$sum", 1))));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Match.class))
+                .aggregate(completedByPlayer)
+                .forEach(row -> addUpsert(updates, row, new Document("matches", row.getInteger("matches", 0))));
+
+        List<Document> ratingsByPlayer = List.of(
+                new Document("$match", new Document("gameId", new Document("$ne", null))),
+                new Document("$group", new Document("_id", new Document("userId", "$ratedUserId").append("gameId", "$gameId"))
+                        .append("ratingPoints", new Document("$sum", "$score"))
+                        .append("ratings", new Document("$sum", 1))));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Rating.class))
+                .aggregate(ratingsByPlayer)
+                .forEach(row -> addUpsert(updates, row, new Document("ratingPoints", ((Number) row.get("ratingPoints")).doubleValue())
+                        .append("ratings", row.getInteger("ratings", 0))));
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(UserGameStats.class))
+                .bulkWrite(updates)
+                .getUpserts().size();
+    }
+
+    private static void addUpsert(List<WriteModel<Document>> updates, Document row, Document totals) {
+        Document key = (Document) row.get("_id");
+        if (key.get("userId") == null || key.get("gameId") == null) {
+            return;
+        }
+        updates.add(new UpdateOneModel<>(
+                new Document("userId", key.get("userId").toString()).append("gameId", key.get("gameId").toString()),
+                new Document("$set", totals),
+                new UpdateOptions().upsert(true)));
+    }
+}
@@ -0,0 +1,16 @@
+package com.pixelpals.backend.repository;
+import com.pixelpals.backend.model.User;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Update;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+public interface UserRepositoryCustom {
+    List<ScoredUserProjection> findScoredMatches(String excludedUserId, String gameId, String gameName,
+                                                 String platformId, String skillLevel, List<Integer> wantedSlots, int limit);
+    long backfillMatchmakingIds();
+    Optional<User> addRating(String userId, int score);
+    void addBadge(String userId, String badgeId);
+    Optional<User> updateFields(String userId, Update update);
+    List<User> recordCompletedMatch(List<String> userIds, Map<String, Document> badgeConditions);
+}
@@ -0,0 +1,244 @@
+package com.pixelpals.backend.repository;
+
+import com.mongodb.DBRef;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.pixelpals.backend.model.AvailabilityBitmap;
+import com.pixelpals.backend.model.Badge;
+import com.pixelpals.backend.model.User;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final int GAME_SCORE = 50;
+    private static final int PLATFORM_SCORE = 30;
+    private static final int SKILL_SCORE = 20;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<ScoredUserProjection> findScoredMatches(String excludedUserId, String gameId, String gameName,
+                                                        String platformId, String skillLevel, List<Integer> wantedSlots,
+                                                        int limit) {
+        List<Document> criteria = new ArrayList<>();
+        List<Object> scoreTerms = new ArrayList<>();
+        if (gameId != null) {
+            criteria.add(new Document("preferredGameIds", gameId));
+            scoreTerms.add(scoreIf(new Document("$in", List.of(gameId, ifNull("$preferredGameIds"))), GAME_SCORE));
+        }
+        if (platformId != null) {
+            criteria.add(new Document("platformIds", platformId));
+            scoreTerms.add(scoreIf(new Document("$in", List.of(platformId, ifNull("$platformIds"))), PLATFORM_SCORE));
+        }
+        String skillPath = gameName == null ? null : "skillLevelMap." + gameName;
+        if (skillPath != null && skillLevel != null) {
+            criteria.add(new Document(skillPath, skillLevel));
+            scoreTerms.add(scoreIf(new Document("$eq", List.of("$" + skillPath, skillLevel)), SKILL_SCORE));
+        }
+        if (criteria.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        if (!wantedSlots.isEmpty()) {
+            scoreTerms.add(availabilityScore(wantedSlots));
+        }
+
+        Document addFields = new Document("compatibilityScore", new Document("$add", scoreTerms));
+        if (skillPath != null) {
+            addFields.append("skillLevelForGame", "$" + skillPath);
+        }
+        List<AggregationOperation> pipeline = List.of(
+                stage("$match", new Document("_id", new Document("$ne", toObjectId(excludedUserId)))
+                        .append("$or", criteria)),
+                stage("$addFields", addFields),
+                stage("$sort", new Document("compatibilityScore", -1).append("rating", -1).append("isOnline", -1)),
+                stage("$limit", limit),
+                stage("$project", new Document("username", 1)
+                        .append("level", 1)
+                        .append("rating", 1)
+                        .append("avatarUrl", 1)
+                        .append("isOnline", 1)
+                        .append("compatibilityScore", 1)
+                        .append("skillLevelForGame", 1)
+                        .append("platformIds", 1)
+                        .append("preferredGameIds", 1))
+        );
+        return mongoTemplate.aggregate(Aggregation.newAggregation(pipeline),
+                mongoTemplate.getCollectionName(User.class), ScoredUserProjection.class).getMappedResults();
+    }
+
+    /**
+     * Fills the id arrays and the availability slot numbers the scoring pipeline matches on, for users saved
+     * before those fields existed.
+     */
+    @Override
+    public long backfillMatchmakingIds() {
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .find(new Document("availabilitySlots", new Document("$exists", false)))
+                .projection(new Document("availability", 1))
+                .forEach(document -> {
+                    User user = new User();
+                    user.setAvailability(mongoTemplate.getConverter().read(User.class, document).getAvailability());
+                    updates.add(new UpdateOneModel<>(new Document("_id", document.get("_id")),
+                            new Document("$set", new Document("availabilitySlots", user.getAvailabilitySlots()))));
+                });
+        Document missingIds = new Document("$or", List.of(
+                new Document("preferredGameIds", new Document("$exists", false)),
+                new Document("platformIds", new Document("$exists", false))));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .find(missingIds)
+                .projection(new Document("preferredGames", 1).append("platforms", 1))
+                .forEach(user -> updates.add(new UpdateOneModel<>(
+                        new Document("_id", user.get("_id")),
+                        new Document("$set", new Document("preferredGameIds", referencedIds(user, "preferredGames"))
+                                .append("platformIds", referencedIds(user, "platforms"))))));
+        if (updates.isEmpty()) {
+            return 0;
+        }
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .bulkWrite(updates)
+                .getModifiedCount();
+    }
+
+    /**
+     * Adds one rating to the user's totals and recomputes the average in the same update, returning the new
+     * totalRatingPoints, numberOfRatings and rating.
+     */
+    @Override
+    public Optional<User> addRating(String userId, int score) {
+        List<Document> pipeline = List.of(
+                new Document("$set", new Document("totalRatingPoints",
+                        new Document("$add", List.of(new Document("$ifNull", List.of("$totalRatingPoints", 0)), score)))
+                        .append("numberOfRatings",
+                                new Document("$add", List.of(new Document("$ifNull", List.of("$numberOfRatings", 0)), 1)))),
+                new Document("$set", new Document("rating", new Document("$toDouble",
+                        new Document("$divide", List.of("$totalRatingPoints", "$numberOfRatings")))))
+        );
+        Document updated = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .findOneAndUpdate(new Document("_id", toObjectId(userId)), pipeline, new FindOneAndUpdateOptions()
+                        .projection(new Document("totalRatingPoints", 1).append("numberOfRatings", 1).append("rating", 1))
+                        .returnDocument(ReturnDocument.AFTER));
+        return Optional.ofNullable(updated).map(document -> mongoTemplate.getConverter().read(User.class, document));
+    }
+
+    /**
+     * Applies {@code update} to the user's document alone, so fields it does not name keep whatever concurrent
+     * writes left there. Returns the updated user.
+     */
+    @Override
+    public Optional<User> updateFields(String userId, Update update) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(Query.query(Criteria.where("id").is(userId)), update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+
+    /**
+     * Adds the badge reference to the user's badges unless it is already there, touching no other field.
+     */
+    @Override
+    public void addBadge(String userId, String badgeId) {
+        DBRef badge = new DBRef(mongoTemplate.getCollectionName(Badge.class), toObjectId(badgeId));
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .updateOne(new Document("_id", toObjectId(userId)),
+                        new Document("$addToSet", new Document("badges", badge)));
+    }
+
+    /**
+     * Counts a completed match for every user in one bulk write: matchesPlayed is incremented, the level is
+     * recomputed from it, and each badge whose condition holds on the updated document is appended unless the
+     * user already has it. Returns the users with their new matchesPlayed and level.
+     */
+    @Override
+    public List<User> recordCompletedMatch(List<String> userIds, Map<String, Document> badgeConditions) {
+        List<Object> earned = new ArrayList<>();
+        String badgeCollection = mongoTemplate.getCollectionName(Badge.class);
+        badgeConditions.forEach((badgeId, condition) -> earned.add(new Document("$cond", List.of(condition,
+                new Document("$literal", List.of(new DBRef(badgeCollection, toObjectId(badgeId)))), List.of()))));
+        Document currentBadges = new Document("$ifNull", List.of("$badges", List.of()));
+
+        List<Document> pipeline = List.of(
+                new Document("$set", new Document("matchesPlayed",
+                        new Document("$add", List.of(new Document("$ifNull", List.of("$matchesPlayed", 0)), 1)))),
+                new Document("$set", new Document("level", new Document("$toInt", new Document("$add", List.of(
+                        new Document("$floor", new Document("$divide", List.of("$matchesPlayed", 5))), 1))))),
+                new Document("$set", new Document("badges", new Document("$concatArrays", List.of(currentBadges,
+                        new Document("$filter", new Document("input", new Document("$concatArrays", earned))
+                                .append("cond", new Document("$not", List.of(
+                                        new Document("$in", List.of("$$this", currentBadges))))))))))
+        );
+        List<WriteModel<Document>> updates = new ArrayList<>();
+        List<Object> ids = new ArrayList<>();
+        for (String userId : userIds) {
+            ids.add(toObjectId(userId));
+            updates.add(new UpdateOneModel<>(new Document("_id", toObjectId(userId)), pipeline));
+        }
+        MongoCollection<Document> users = mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class));
+        users.bulkWrite(updates);
+
+        List<User> updated = new ArrayList<>();
+        users.find(new Document("_id", new Document("$in", ids)))
+                .projection(new Document("matchesPlayed", 1).append("level", 1)
+                        .append("rating", 1).append("numberOfRatings", 1))
+                .forEach(user -> updated.add(mongoTemplate.getConverter().read(User.class, user)));
+        return updated;
+    }
+
+    private static List<String> referencedIds(Document user, String field) {
+        if (!(user.get(field) instanceof List<?> refs)) {
+            return List.of();
+        }
+        return refs.stream()
+                .map(ref -> ref instanceof DBRef dbRef ? dbRef.getId()
+                        : ref instanceof Document document ? document.get("$id") : null)
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .toList();
+    }
+
+    private static Document scoreIf(Document condition, int score) {
+        return new Document("$cond", List.of(condition, score, 0));
+    }
+
+    /**
+     * One point per hour of overlap between the user's weekly slots and the wanted ones, capped like
+     * {@link MatchmakingIndex#availabilityScore}.
+     */
+    private static Document availabilityScore(List<Integer> wantedSlots) {
+        Document overlap = new Document("$size", new Document("$setIntersection",
+                List.of(ifNull("$availabilitySlots"), wantedSlots)));
+        Document hours = new Document("$trunc", new Document("$divide",
+                List.of(new Document("$multiply", List.of(overlap, AvailabilityBitmap.SLOT_MINUTES)), 60)));
+        return new Document("$min", List.of(hours, MatchmakingIndex.MAX_AVAILABILITY_SCORE));
+    }
+
+    private static Document ifNull(String field) {
+        return new Document("$ifNull", List.of(field, List.of()));
+    }
+
+    private static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    private static AggregationOperation stage(String operator, Object body) {
+        return context -> new Document(operator, body);
+    }
+}
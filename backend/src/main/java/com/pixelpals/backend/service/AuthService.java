@@ -48,7 +48,7 @@ public class AuthService {
         String verificationToken = jwtService.generateVerificationToken(user);
         user.setVerificationToken(verificationToken);
         user.setTokenExpirationDate(jwtService.extractExpiration(verificationToken));
-        User savedUser = userService.saveUser(user);
+        User savedUser = userService.createUser(user);
         emailService.sendVerificationEmail(savedUser, verificationToken);
         return savedUser;
     }
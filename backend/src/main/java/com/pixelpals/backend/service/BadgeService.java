@@ -4,10 +4,14 @@ import com.pixelpals.backend.model.User;
 import com.pixelpals.backend.repository.BadgeRepository;
 import com.pixelpals.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 @Service
 @RequiredArgsConstructor
 public class BadgeService {
@@ -19,6 +23,7 @@ public class BadgeService {
     private static final String CASUAL_PLAYER_BADGE_NAME = "Giocatore Occasionale";
     private static final String FIELD_VETERAN_BADGE_NAME = "Veterano del Campo";
     private static final String PIXELPALS_LEGEND_BADGE_NAME = "Leggenda di PixelPals";
+    private final Map<String, String> badgeIdsByName = new ConcurrentHashMap<>();
     @PostConstruct
     public void initBadges() {
         createBadgeIfNotExists(
@@ -68,7 +73,7 @@ public class BadgeService {
         if (user.getMatchesPlayed() >= 1) {
             assignBadge(user, FIRST_MATCH_BADGE_NAME);
         }
-        if (user.getNumberOfRatings() >= 5 && user.getRating() >= 4.5) {
+        if (isReliable(user.getNumberOfRatings(), user.getRating())) {
             assignBadge(user, RELIABLE_PIXELPAL_BADGE_NAME);
         }
         if (user.getLevel() >= 5) {
@@ -85,6 +90,9 @@ public class BadgeService {
         }
         return user;
     }
+    public boolean isReliable(int numberOfRatings, double rating) {
+        return numberOfRatings >= 5 && rating >= 4.5;
+    }
     private void assignBadge(User user, String badgeName) {
         Optional<Badge> badgeOptional = badgeRepository.findByName(badgeName);
         if (badgeOptional.isPresent()) {
@@ -93,11 +101,36 @@ public class BadgeService {
                     .anyMatch(b -> b.getId().equals(badge.getId()));
             if (!hasBadge) {
                 user.getBadges().add(badge);
-                userRepository.save(user);
+                userRepository.addBadge(user.getId(), badge.getId());
             }
         } else {
         }
     }
+    /**
+     * The rules of {@link #checkAndAssignBadges(User)} as aggregation conditions on a user document, keyed by
+     * badge id, so they can be evaluated inside an update pipeline.
+     */
+    public Map<String, Document> badgeConditions() {
+        Map<String, Document> conditions = new LinkedHashMap<>();
+        putCondition(conditions, FIRST_MATCH_BADGE_NAME, atLeast("$matchesPlayed", 1));
+        putCondition(conditions, RELIABLE_PIXELPAL_BADGE_NAME,
+                new Document("$and", List.of(atLeast("$numberOfRatings", 5), atLeast("$rating", 4.5))));
+        putCondition(conditions, LEVEL_5_VETERAN_BADGE_NAME, atLeast("$level", 5));
+        putCondition(conditions, CASUAL_PLAYER_BADGE_NAME, atLeast("$matchesPlayed", 5));
+        putCondition(conditions, FIELD_VETERAN_BADGE_NAME, atLeast("$matchesPlayed", 10));
+        putCondition(conditions, PIXELPALS_LEGEND_BADGE_NAME, atLeast("$matchesPlayed", 20));
+        return conditions;
+    }
+    private void putCondition(Map<String, Document> conditions, String badgeName, Document condition) {
+        String badgeId = badgeIdsByName.computeIfAbsent(badgeName,
+                name -> badgeRepository.findByName(name).map(Badge::getId).orElse(null));
+        if (badgeId != null) {
+            conditions.put(badgeId, condition);
+        }
+    }
+    private static Document atLeast(String field, Number threshold) {
+        return new Document("$gte", List.of(new Document("$ifNull", List.of(field, 0)), threshold));
+    }
     public List<Badge> getAllBadges() {
         return badgeRepository.findAll();
     }
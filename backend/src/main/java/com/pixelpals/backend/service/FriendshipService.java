@@ -7,6 +7,8 @@ import com.pixelpals.backend.mapper.UserMapper;
 import com.pixelpals.backend.model.Friendship;
 import com.pixelpals.backend.enumeration.FriendshipStatus;
 import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.repository.DisplayNameCache;
+import com.pixelpals.backend.repository.FriendshipGraph;
 import com.pixelpals.backend.repository.FriendshipRepository;
 import com.pixelpals.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -17,6 +19,7 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +27,8 @@ public class FriendshipService {
 
     private final FriendshipRepository friendshipRepository;
     private final UserRepository userRepository;
+    private final FriendshipGraph friendshipGraph;
+    private final DisplayNameCache displayNameCache;
     private final SimpMessagingTemplate messagingTemplate;
 
     @Transactional
@@ -56,6 +61,7 @@ public class FriendshipService {
                 friendship.setCreatedAt(LocalDateTime.now());
                 friendship.setAcceptedAt(null);
                 Friendship savedFriendship = friendshipRepository.save(friendship);
+                friendshipGraph.update(savedFriendship.getSender().getId(), savedFriendship.getReceiver().getId(), FriendshipStatus.PENDING);
                 messagingTemplate.convertAndSendToUser(
                         receiver.getUsername(),
                         "/queue/friend-requests/new",
@@ -71,6 +77,7 @@ public class FriendshipService {
         friendship.setStatus(FriendshipStatus.PENDING);
         friendship.setCreatedAt(LocalDateTime.now());
         Friendship savedFriendship = friendshipRepository.save(friendship);
+        friendshipGraph.update(sender.getId(), receiver.getId(), FriendshipStatus.PENDING);
         messagingTemplate.convertAndSendToUser(
                 receiver.getUsername(),
                 "/queue/friend-requests/new",
@@ -97,6 +104,7 @@ public class FriendshipService {
         friendship.setStatus(FriendshipStatus.ACCEPTED);
         friendship.setAcceptedAt(LocalDateTime.now());
         Friendship updatedFriendship = friendshipRepository.save(friendship);
+        friendshipGraph.update(friendship.getSender().getId(), friendship.getReceiver().getId(), FriendshipStatus.ACCEPTED);
 
         messagingTemplate.convertAndSendToUser(
                 friendship.getSender().getUsername(),
@@ -129,6 +137,7 @@ public class FriendshipService {
 
         friendship.setStatus(FriendshipStatus.REJECTED);
         Friendship updatedFriendship = friendshipRepository.save(friendship);
+        friendshipGraph.update(friendship.getSender().getId(), friendship.getReceiver().getId(), FriendshipStatus.REJECTED);
 
         messagingTemplate.convertAndSendToUser(
                 friendship.getSender().getUsername(),
@@ -151,15 +160,20 @@ public class FriendshipService {
         User friendToRemove = userRepository.findById(friendId)
                 .orElseThrow(() -> new RuntimeException("Amico da rimuovere non trovato."));
 
-        Optional<Friendship> friendshipOpt = friendshipRepository
-                .findBySenderAndReceiverAndStatus(currentUser, friendToRemove, FriendshipStatus.ACCEPTED)
-                .or(() -> friendshipRepository.findBySenderAndReceiverAndStatus(friendToRemove, currentUser, FriendshipStatus.ACCEPTED));
+        // Both directions are looked up: two crossed requests can leave an accepted document each way, and
+        // deleting only one would bring the friendship back when the graph is rebuilt from Mongo.
+        List<Friendship> friendships = Stream.of(
+                        friendshipRepository.findBySenderAndReceiverAndStatus(currentUser, friendToRemove, FriendshipStatus.ACCEPTED),
+                        friendshipRepository.findBySenderAndReceiverAndStatus(friendToRemove, currentUser, FriendshipStatus.ACCEPTED))
+                .flatMap(Optional::stream)
+                .collect(Collectors.toList());
 
-        if (friendshipOpt.isEmpty()) {
+        if (friendships.isEmpty()) {
             throw new IllegalArgumentException("Non siete amici o l'amicizia non è stata trovata.");
         }
 
-        friendshipRepository.delete(friendshipOpt.get());
+        friendshipRepository.deleteAll(friendships);
+        friendshipGraph.remove(currentUser.getId(), friendToRemove.getId());
 
         messagingTemplate.convertAndSendToUser(
                 currentUser.getUsername(),
@@ -176,14 +190,9 @@ public class FriendshipService {
     public List<UserDTO> getFriends(String username) {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Utente non trovato: " + username));
-        List<Friendship> friendships = getAcceptedFriendships(currentUser);
-        Set<UserDTO> uniqueFriends = friendships.stream()
-                .map(friendship -> {
-                    User friendUser = friendship.getSender().equals(currentUser) ? friendship.getReceiver() : friendship.getSender();
-                    return UserMapper.toDTO(friendUser);
-                })
-                .collect(Collectors.toSet());
-        return new ArrayList<>(uniqueFriends);
+        return getFriendUsers(currentUser.getId()).stream()
+                .map(UserMapper::toDTO)
+                .collect(Collectors.toList());
     }
 
     public List<FriendshipDTO> getPendingRequests(String username) {
@@ -204,43 +213,23 @@ public class FriendshipService {
                 .collect(Collectors.toList());
     }
 
-    public List<Friendship> getAcceptedFriendships(User user) {
-        List<Friendship> sentAccepted = friendshipRepository.findBySenderAndStatus(user, FriendshipStatus.ACCEPTED);
-        List<Friendship> receivedAccepted = friendshipRepository.findByReceiverAndStatus(user, FriendshipStatus.ACCEPTED);
-        Set<Friendship> allAccepted = new HashSet<>(sentAccepted);
-        allAccepted.addAll(receivedAccepted);
-        return new ArrayList<>(allAccepted);
-    }
-
-    public FriendshipStatus getFriendshipStatusBetweenUsers(String currentUsername, String otherUserId) {
-        User currentUser = userRepository.findByUsername(currentUsername)
-                .orElseThrow(() -> new RuntimeException("Utente corrente non trovato: " + currentUsername));
-        User otherUser = userRepository.findById(otherUserId)
-                .orElseThrow(() -> new RuntimeException("Utente cercato non trovato con ID: " + otherUserId));
-
-        if (currentUser.getId().equals(otherUser.getId())) {
-            return FriendshipStatus.SELF;
+    /**
+     * The user's friends, with the ids taken from {@link FriendshipGraph} and the users loaded in one query.
+     */
+    public List<User> getFriendUsers(String userId) {
+        List<String> friendIds = friendshipGraph.friendIds(userId);
+        if (friendIds.isEmpty()) {
+            return new ArrayList<>();
         }
+        List<User> friends = new ArrayList<>();
+        userRepository.findAllById(friendIds).forEach(friends::add);
+        return friends;
+    }
 
-        Optional<Friendship> friendshipOpt = friendshipRepository
-                .findBySenderAndReceiver(currentUser, otherUser)
-                .or(() -> friendshipRepository.findBySenderAndReceiver(otherUser, currentUser));
-
-        if (friendshipOpt.isPresent()) {
-            Friendship friendship = friendshipOpt.get();
-            if (friendship.getStatus() == FriendshipStatus.ACCEPTED) {
-                return FriendshipStatus.ACCEPTED;
-            } else if (friendship.getStatus() == FriendshipStatus.PENDING) {
-                if (friendship.getSender().getId().equals(currentUser.getId())) {
-                    return FriendshipStatus.PENDING_SENT;
-                } else {
-                    return FriendshipStatus.PENDING_RECEIVED;
-                }
-            } else if (friendship.getStatus() == FriendshipStatus.REJECTED) {
-                return FriendshipStatus.REJECTED;
-            }
+    public FriendshipStatus getFriendshipStatusBetweenUsers(String currentUserId, String otherUserId) {
+        if (!currentUserId.equals(otherUserId) && displayNameCache.username(otherUserId).isEmpty()) {
+            throw new RuntimeException("Utente cercato non trovato con ID: " + otherUserId);
         }
-
-        return FriendshipStatus.NONE;
+        return friendshipGraph.status(currentUserId, otherUserId);
     }
 }
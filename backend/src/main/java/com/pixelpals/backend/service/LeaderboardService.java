@@ -0,0 +1,142 @@
+package com.pixelpals.backend.service;
+
+import com.pixelpals.backend.dto.LeaderboardEntryDTO;
+import com.pixelpals.backend.enumeration.LeaderboardMetric;
+import com.pixelpals.backend.model.Match;
+import com.pixelpals.backend.model.Rating;
+import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.model.UserGameStats;
+import com.pixelpals.backend.repository.DisplayNameCache;
+import com.pixelpals.backend.repository.LeaderboardStore;
+import com.pixelpals.backend.repository.UserGameStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Global and per-game leaderboards by rating, matches played and level. Global boards use the counters on the
+ * user document; per-game boards use the per-user, per-game totals in {@code user_game_stats}, incremented
+ * atomically in Mongo so instances sharing a store rank the same values. Both are built once at startup and
+ * then updated as matches are closed and rated.
+ */
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    private static final String GLOBAL = "global";
+
+    private final LeaderboardStore leaderboardStore;
+    private final MongoTemplate mongoTemplate;
+    private final DisplayNameCache displayNameCache;
+    private final UserGameStatsRepository userGameStatsRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Query users = new Query();
+        users.fields().include("rating", "numberOfRatings", "matchesPlayed", "level");
+        try (Stream<User> stream = mongoTemplate.stream(users, User.class)) {
+            stream.forEach(this::updateGlobal);
+        }
+
+        userGameStatsRepository.backfillFromHistory();
+        try (Stream<UserGameStats> stream = mongoTemplate.stream(new Query(), UserGameStats.class)) {
+            stream.forEach(this::updateGame);
+        }
+    }
+
+    public void matchCompleted(Match match, List<User> players) {
+        for (User player : players) {
+            updateGlobalCounters(player);
+            if (match.getGameId() != null) {
+                updateGame(userGameStatsRepository.increment(player.getId(), match.getGameId(), 1, 0, 0));
+            }
+        }
+    }
+
+    public void ratingSubmitted(Rating rating, User ratedUser) {
+        putPositive(board(LeaderboardMetric.RATING, null), ratedUser.getId(),
+                ratedUser.getNumberOfRatings() > 0 ? ratedUser.getRating() : 0);
+        if (rating.getGameId() != null) {
+            updateGame(userGameStatsRepository.increment(rating.getRatedUserId(), rating.getGameId(), 0, rating.getScore(), 1));
+        }
+    }
+
+    public void removeUser(String userId) {
+        List<UserGameStats> byGame = userGameStatsRepository.findByUserId(userId);
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            leaderboardStore.remove(board(metric, null), userId);
+            byGame.forEach(stats -> leaderboardStore.remove(board(metric, stats.getGameId()), userId));
+        }
+        userGameStatsRepository.deleteByUserId(userId);
+    }
+
+    public List<LeaderboardEntryDTO> getTop(String metric, String gameId, int limit) {
+        return leaderboardStore.top(board(parseMetric(metric), gameId), Math.max(1, Math.min(limit, 100)))
+                .stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<LeaderboardEntryDTO> getRank(String metric, String gameId, String userId) {
+        return leaderboardStore.find(board(parseMetric(metric), gameId), userId).map(this::toDTO);
+    }
+
+    private void updateGlobal(User user) {
+        putPositive(board(LeaderboardMetric.RATING, null), user.getId(), user.getNumberOfRatings() > 0 ? user.getRating() : 0);
+        updateGlobalCounters(user);
+    }
+
+    /**
+     * The boards a completed match moves; the rating board is only touched when a rating is submitted.
+     */
+    private void updateGlobalCounters(User user) {
+        putPositive(board(LeaderboardMetric.MATCHES_PLAYED, null), user.getId(), user.getMatchesPlayed());
+        putPositive(board(LeaderboardMetric.LEVEL, null), user.getId(), user.getLevel());
+    }
+
+    private void updateGame(UserGameStats stats) {
+        String userId = stats.getUserId();
+        String gameId = stats.getGameId();
+        putPositive(board(LeaderboardMetric.MATCHES_PLAYED, gameId), userId, stats.getMatches());
+        putPositive(board(LeaderboardMetric.LEVEL, gameId), userId, stats.getMatches() > 0 ? stats.getMatches() / 5 + 1 : 0);
+        putPositive(board(LeaderboardMetric.RATING, gameId), userId,
+                stats.getRatings() > 0 ? stats.getRatingPoints() / stats.getRatings() : 0);
+    }
+
+    private void putPositive(String board, String userId, double score) {
+        if (score > 0) {
+            leaderboardStore.put(board, userId, score);
+        } else {
+            leaderboardStore.remove(board, userId);
+        }
+    }
+
+    private LeaderboardEntryDTO toDTO(LeaderboardStore.Entry entry) {
+        return LeaderboardEntryDTO.builder()
+                .rank(entry.rank())
+                .userId(entry.userId())
+                .username(displayNameCache.username(entry.userId()).orElse(null))
+                .score(entry.score())
+                .build();
+    }
+
+    private static String board(LeaderboardMetric metric, String gameId) {
+        return metric.name() + ":" + (gameId == null || gameId.isEmpty() ? GLOBAL : gameId);
+    }
+
+    private static LeaderboardMetric parseMetric(String metric) {
+        return Arrays.stream(LeaderboardMetric.values())
+                .filter(value -> value.name().equals(metric))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Invalid leaderboard metric: " + metric));
+    }
+}
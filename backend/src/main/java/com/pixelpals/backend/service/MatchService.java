@@ -1,22 +1,40 @@
 package com.pixelpals.backend.service;
 
+import com.pixelpals.backend.dto.CursorPageDTO;
 import com.pixelpals.backend.dto.GameMatchRequestDTO;
 import com.pixelpals.backend.dto.MatchDetailsDTO;
 import com.pixelpals.backend.dto.MatchRequestDTO;
 import com.pixelpals.backend.dto.MatchedUserDTO;
 import com.pixelpals.backend.dto.RatingRequestDTO;
+import com.pixelpals.backend.model.AvailabilityBitmap;
 import com.pixelpals.backend.model.Game;
 import com.pixelpals.backend.model.Match;
+import com.pixelpals.backend.model.Platform;
+import com.pixelpals.backend.model.Rating;
 import com.pixelpals.backend.model.User;
 import com.pixelpals.backend.enumeration.MatchStatus;
+import com.pixelpals.backend.enumeration.SkillLevel;
+import com.pixelpals.backend.repository.DisplayNameCache;
 import com.pixelpals.backend.repository.GameRepository;
 import com.pixelpals.backend.repository.MatchRepository;
+import com.pixelpals.backend.repository.MatchmakingIndex;
+import com.pixelpals.backend.repository.PlatformRepository;
+import com.pixelpals.backend.repository.RatingRepository;
+import com.pixelpals.backend.repository.ScoredUserProjection;
 import com.pixelpals.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -27,198 +45,216 @@ public class MatchService {
     private final MatchRepository matchRepository;
     private final UserRepository userRepository;
     private final GameRepository gameRepository;
+    private final PlatformRepository platformRepository;
     private final MessageService messageService;
     private final SimpMessagingTemplate messagingTemplate;
     private final BadgeService badgeService;
+    private final MatchmakingIndex matchmakingIndex;
+    private final DisplayNameCache displayNameCache;
+    private final PendingMatchExpiryService pendingMatchExpiryService;
+    private final RatingRepository ratingRepository;
+    private final LeaderboardService leaderboardService;
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
+    @Value("${pixelpals.matchmaking.aggregation.enabled:false}")
+    private boolean aggregationEnabled;
 
     public List<MatchedUserDTO> findMatches(MatchRequestDTO request, String currentUsername) {
         User currentUser = userRepository.findByUsername(currentUsername)
                 .orElseThrow(() -> new RuntimeException("Current user not found."));
 
-        List<User> allUsers = userRepository.findAll();
-
-        return allUsers.stream()
-                .filter(user -> !user.getId().equals(currentUser.getId()))
-                .map(user -> {
-                    int score = 0;
-
-                    if (request.getGameName() != null && !request.getGameName().isEmpty()) {
-                        if (user.getPreferredGames().stream().anyMatch(g -> g.getName().equals(request.getGameName()))) {
-                            score += 50;
-                        }
-                    }
-                    if (request.getPlatformName() != null && !request.getPlatformName().isEmpty()) {
-                        if (user.getPlatforms().stream().anyMatch(p -> p.getName().equals(request.getPlatformName()))) {
-                            score += 30;
-                        }
-                    }
-                    if (request.getSkillLevel() != null && !request.getSkillLevel().isEmpty()) {
-                        String userSkill = user.getSkillLevelMap().get(request.getGameName()) != null ?
-                                user.getSkillLevelMap().get(request.getGameName()).name() : null;
-                        if (userSkill != null && userSkill.equals(request.getSkillLevel())) {
-                            score += 20;
-                        }
-                    }
-
-                    List<String> commonGames = currentUser.getPreferredGames().stream()
-                            .filter(g -> user.getPreferredGames().contains(g))
-                            .map(Game::getName)
-                            .collect(Collectors.toList());
-
-                    List<String> commonPlatforms = currentUser.getPlatforms().stream()
-                            .filter(p -> user.getPlatforms().contains(p))
-                            .map(platform -> platform.getName())
-                            .collect(Collectors.toList());
-
-                    String skillLevelForGame = null;
-                    if (request.getGameName() != null && !request.getGameName().isEmpty()) {
-                        skillLevelForGame = user.getSkillLevelMap().get(request.getGameName()) != null ?
-                                user.getSkillLevelMap().get(request.getGameName()).name() : null;
-                    }
-
-                    return MatchedUserDTO.builder()
-                            .id(user.getId())
-                            .username(user.getUsername())
-                            .level(user.getLevel())
-                            .rating(user.getRating())
-                            .avatarUrl(user.getAvatarUrl())
-                            .isOnline(user.isOnline())
-                            .compatibilityScore(score)
-                            .commonGames(commonGames)
-                            .commonPlatforms(commonPlatforms)
-                            .skillLevelForGame(skillLevelForGame)
-                            .build();
-                })
-                .filter(matchedUser -> matchedUser.getCompatibilityScore() > 0)
-                .limit(request.getMaxResults())
+        if (aggregationEnabled) {
+            return findMatchesWithAggregation(request, currentUser);
+        }
+
+        String gameName = request.getGameName() != null && !request.getGameName().isEmpty() ? request.getGameName() : null;
+        String platformName = request.getPlatformName() != null && !request.getPlatformName().isEmpty() ? request.getPlatformName() : null;
+        SkillLevel skillLevel = gameName == null ? null : Arrays.stream(SkillLevel.values())
+                .filter(level -> level.name().equals(request.getSkillLevel()))
+                .findFirst()
+                .orElse(null);
+
+        return matchmakingIndex.findTopMatches(currentUser.getId(), gameName, platformName, skillLevel,
+                        wantedSlots(request, currentUser), request.getMaxResults())
+                .stream()
+                .map(this::toMatchedUserDTO)
+                .collect(Collectors.toList());
+    }
+
+    private List<MatchedUserDTO> findMatchesWithAggregation(MatchRequestDTO request, User currentUser) {
+        String gameName = request.getGameName() != null && !request.getGameName().isEmpty() ? request.getGameName() : null;
+        String gameId = gameName == null ? null : gameRepository.findByName(gameName).map(Game::getId).orElse(null);
+        String platformId = request.getPlatformName() == null || request.getPlatformName().isEmpty() ? null
+                : platformRepository.findByName(request.getPlatformName()).map(Platform::getId).orElse(null);
+        String skillLevel = Arrays.stream(SkillLevel.values())
+                .map(SkillLevel::name)
+                .filter(level -> level.equals(request.getSkillLevel()))
+                .findFirst()
+                .orElse(null);
+
+        List<Integer> wantedSlots = new ArrayList<>();
+        wantedSlots(request, currentUser).forEachSlot(wantedSlots::add);
+        List<ScoredUserProjection> scoredUsers = userRepository.findScoredMatches(
+                currentUser.getId(), gameId, gameName, platformId, skillLevel, wantedSlots, request.getMaxResults());
+
+        return scoredUsers.stream()
+                .map(user -> MatchedUserDTO.builder()
+                        .id(user.getId())
+                        .username(user.getUsername())
+                        .level(user.getLevel())
+                        .rating(user.getRating())
+                        .avatarUrl(user.getAvatarUrl())
+                        .isOnline(user.isOnline())
+                        .compatibilityScore(user.getCompatibilityScore())
+                        .commonGames(currentUser.getPreferredGames().stream()
+                                .filter(g -> user.getPreferredGameIds().contains(g.getId()))
+                                .map(Game::getName)
+                                .collect(Collectors.toList()))
+                        .commonPlatforms(currentUser.getPlatforms().stream()
+                                .filter(p -> user.getPlatformIds().contains(p.getId()))
+                                .map(Platform::getName)
+                                .collect(Collectors.toList()))
+                        .skillLevelForGame(user.getSkillLevelForGame())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private AvailabilityBitmap wantedSlots(MatchRequestDTO request, User currentUser) {
+        return request.getPreferredTimeSlots() != null && !request.getPreferredTimeSlots().isEmpty()
+                ? AvailabilityBitmap.parse(request.getPreferredTimeSlots())
+                : matchmakingIndex.availabilityOf(currentUser.getId());
+    }
+
+    public List<MatchedUserDTO> findPlayersAvailableNow(String gameName, int maxResults, String currentUsername) {
+        User currentUser = userRepository.findByUsername(currentUsername)
+                .orElseThrow(() -> new RuntimeException("Current user not found."));
+
+        return matchmakingIndex.findAvailableAt(currentUser.getId(), AvailabilityBitmap.slotOf(LocalDateTime.now()),
+                        gameName == null || gameName.isEmpty() ? null : gameName, maxResults)
+                .stream()
+                .map(this::toMatchedUserDTO)
                 .collect(Collectors.toList());
     }
 
+    private MatchedUserDTO toMatchedUserDTO(MatchmakingIndex.ProfileMatch match) {
+        return MatchedUserDTO.builder()
+                .id(match.userId())
+                .username(match.username())
+                .level(match.level())
+                .rating(match.rating())
+                .avatarUrl(match.avatarUrl())
+                .isOnline(match.online())
+                .compatibilityScore(match.score())
+                .commonGames(match.commonGames())
+                .commonPlatforms(match.commonPlatforms())
+                .skillLevelForGame(match.skillLevelForGame())
+                .build();
+    }
+
     public MatchDetailsDTO requestGameMatch(String senderId, GameMatchRequestDTO requestDTO) {
-        User sender = userRepository.findById(senderId)
+        String senderUsername = displayNameCache.username(senderId)
                 .orElseThrow(() -> new RuntimeException("Sender not found."));
-        User receiver = userRepository.findById(requestDTO.getReceiverId())
+        String receiverUsername = displayNameCache.username(requestDTO.getReceiverId())
                 .orElseThrow(() -> new RuntimeException("Receiver not found."));
-        Game game = gameRepository.findById(requestDTO.getGameId())
+        String gameName = displayNameCache.gameName(requestDTO.getGameId())
                 .orElseThrow(() -> new RuntimeException("Game not found."));
 
-        Optional<Match> existingMatch = matchRepository.findByUserAIdAndUserBIdAndGameIdAndStatus(sender.getId(), receiver.getId(), game.getId(), MatchStatus.PENDING);
-        Optional<Match> reverseMatch = matchRepository.findByUserAIdAndUserBIdAndGameIdAndStatus(receiver.getId(), sender.getId(), game.getId(), MatchStatus.PENDING);
-
-        if (existingMatch.isPresent() || reverseMatch.isPresent()) {
-            throw new RuntimeException("A pending game request already exists with this user for this game.");
-        }
-
         Match newMatch = new Match();
-        newMatch.setUserAId(sender.getId());
-        newMatch.setUserAUsername(sender.getUsername());
-        newMatch.setUserBId(receiver.getId());
-        newMatch.setUserBUsername(receiver.getUsername());
-        newMatch.setGameId(game.getId());
-        newMatch.setGameName(game.getName());
+        newMatch.setUserAId(senderId);
+        newMatch.setUserAUsername(senderUsername);
+        newMatch.setUserBId(requestDTO.getReceiverId());
+        newMatch.setUserBUsername(receiverUsername);
+        newMatch.setGameId(requestDTO.getGameId());
+        newMatch.setGameName(gameName);
+        newMatch.setPairKey(messageService.generateChatRoomId(senderId, requestDTO.getReceiverId()));
         newMatch.setStatus(MatchStatus.PENDING);
         newMatch.setMatchedAt(LocalDateTime.now());
 
-        Match savedMatch = matchRepository.save(newMatch);
+        Match savedMatch;
+        try {
+            savedMatch = matchRepository.insert(newMatch);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("A pending game request already exists with this user for this game.");
+        }
+        pendingMatchExpiryService.schedule(savedMatch);
 
         Map<String, String> payload = Map.of(
                 "type", "MATCH_REQUEST",
                 "matchId", savedMatch.getId(),
-                "senderUsername", sender.getUsername(),
-                "gameName", game.getName()
+                "senderUsername", senderUsername,
+                "gameName", gameName
         );
 
-        messagingTemplate.convertAndSendToUser(receiver.getUsername(), "/queue/match-notifications", payload);
+        messagingTemplate.convertAndSendToUser(receiverUsername, "/queue/match-notifications", payload);
         return convertToMatchDetailsDTO(savedMatch);
     }
 
     public MatchDetailsDTO acceptGameMatch(String userId, String matchId) {
-        Match match = matchRepository.findById(matchId)
-                .orElseThrow(() -> new RuntimeException("Match not found."));
-
-        if (!match.getStatus().equals(MatchStatus.PENDING) || !match.getUserBId().equals(userId)) {
-            throw new RuntimeException("Invalid match status or user not authorized.");
-        }
-
-        match.setStatus(MatchStatus.ACCEPTED);
-        match.setAcceptedAt(LocalDateTime.now());
-        String chatRoomId = messageService.generateChatRoomId(match.getUserAId(), match.getUserBId());
-        match.setChatRoomId(chatRoomId);
-        Match updatedMatch = matchRepository.save(match);
-
-        User sender = userRepository.findById(match.getUserAId()).orElseThrow();
-        User receiver = userRepository.findById(match.getUserBId()).orElseThrow();
+        AggregationUpdate accept = AggregationUpdate.update()
+                .set("status").toValue(MatchStatus.ACCEPTED.name())
+                .set("acceptedAt").toValue(toDate(LocalDateTime.now()))
+                .set("chatRoomId").toValueOf(Fields.field("pairKey"));
+        Match updatedMatch = matchRepository.transition(matchId, MatchStatus.PENDING, Criteria.where("userBId").is(userId), accept)
+                .orElseThrow(() -> matchRepository.existsById(matchId)
+                        ? new RuntimeException("Invalid match status or user not authorized.")
+                        : new RuntimeException("Match not found."));
 
         Map<String, String> payloadA = Map.of(
                 "type", "MATCH_ACCEPTED",
-                "matchId", match.getId(),
-                "gameName", match.getGameName(),
-                "opponentUsername", receiver.getUsername()
+                "matchId", updatedMatch.getId(),
+                "gameName", updatedMatch.getGameName(),
+                "opponentUsername", updatedMatch.getUserBUsername()
         );
 
         Map<String, String> payloadB = Map.of(
                 "type", "MATCH_ACCEPTED",
-                "matchId", match.getId(),
-                "gameName", match.getGameName(),
-                "opponentUsername", sender.getUsername()
+                "matchId", updatedMatch.getId(),
+                "gameName", updatedMatch.getGameName(),
+                "opponentUsername", updatedMatch.getUserAUsername()
         );
 
-        messagingTemplate.convertAndSendToUser(sender.getUsername(), "/queue/match-notifications", payloadA);
-        messagingTemplate.convertAndSendToUser(receiver.getUsername(), "/queue/match-notifications", payloadB);
+        messagingTemplate.convertAndSendToUser(updatedMatch.getUserAUsername(), "/queue/match-notifications", payloadA);
+        messagingTemplate.convertAndSendToUser(updatedMatch.getUserBUsername(), "/queue/match-notifications", payloadB);
 
         return convertToMatchDetailsDTO(updatedMatch);
     }
 
     public MatchDetailsDTO declineGameMatch(String userId, String matchId) {
-        Match match = matchRepository.findById(matchId).orElseThrow();
-
-        if (!match.getStatus().equals(MatchStatus.PENDING) || !match.getUserBId().equals(userId)) {
-            throw new RuntimeException("Invalid match status or unauthorized.");
-        }
-
-        match.setStatus(MatchStatus.DECLINED);
-        match.setDeclinedAt(LocalDateTime.now());
-        Match updatedMatch = matchRepository.save(match);
-
-        User sender = userRepository.findById(match.getUserAId()).orElseThrow();
-        User receiver = userRepository.findById(match.getUserBId()).orElseThrow();
+        Update decline = new Update()
+                .set("status", MatchStatus.DECLINED)
+                .set("declinedAt", LocalDateTime.now());
+        Match updatedMatch = matchRepository.transition(matchId, MatchStatus.PENDING, Criteria.where("userBId").is(userId), decline)
+                .orElseThrow(() -> new RuntimeException("Invalid match status or unauthorized."));
 
         Map<String, String> payload = Map.of(
                 "type", "MATCH_DECLINED",
-                "matchId", match.getId(),
-                "declinerUsername", receiver.getUsername(),
-                "gameName", match.getGameName()
+                "matchId", updatedMatch.getId(),
+                "declinerUsername", updatedMatch.getUserBUsername(),
+                "gameName", updatedMatch.getGameName()
         );
 
-        messagingTemplate.convertAndSendToUser(sender.getUsername(), "/queue/match-notifications", payload);
-        messagingTemplate.convertAndSendToUser(receiver.getUsername(), "/queue/match-notifications", payload);
+        messagingTemplate.convertAndSendToUser(updatedMatch.getUserAUsername(), "/queue/match-notifications", payload);
+        messagingTemplate.convertAndSendToUser(updatedMatch.getUserBUsername(), "/queue/match-notifications", payload);
 
         return convertToMatchDetailsDTO(updatedMatch);
     }
 
     public MatchDetailsDTO closeGameMatch(String userId, String matchId) {
-        Match match = matchRepository.findById(matchId).orElseThrow();
-
-        if (!match.getStatus().equals(MatchStatus.ACCEPTED) ||
-                (!match.getUserAId().equals(userId) && !match.getUserBId().equals(userId))) {
-            throw new RuntimeException("Unauthorized or invalid match state.");
-        }
-
-        match.setStatus(MatchStatus.COMPLETED);
-        match.setCompletedAt(LocalDateTime.now());
-        Match closedMatch = matchRepository.save(match);
-
-        User userA = userRepository.findById(match.getUserAId()).orElseThrow();
-        User userB = userRepository.findById(match.getUserBId()).orElseThrow();
+        Update close = new Update()
+                .set("status", MatchStatus.COMPLETED)
+                .set("completedAt", LocalDateTime.now());
+        Criteria participant = new Criteria().orOperator(Criteria.where("userAId").is(userId), Criteria.where("userBId").is(userId));
+        Match closedMatch = matchRepository.transition(matchId, MatchStatus.ACCEPTED, participant, close)
+                .orElseThrow(() -> new RuntimeException("Unauthorized or invalid match state."));
 
-        userA.incrementMatchesPlayed();
-        userB.incrementMatchesPlayed();
-        userRepository.save(userA);
-        badgeService.checkAndAssignBadges(userA);
-        userRepository.save(userB);
-        badgeService.checkAndAssignBadges(userB);
+        List<User> players = userRepository.recordCompletedMatch(
+                List.of(closedMatch.getUserAId(), closedMatch.getUserBId()), badgeService.badgeConditions());
+        players.forEach(player -> matchmakingIndex.updateLevel(player.getId(), player.getLevel()));
+        leaderboardService.matchCompleted(closedMatch, players);
 
-        String closerUsername = userRepository.findById(userId).get().getUsername();
+        String closerUsername = userId.equals(closedMatch.getUserAId())
+                ? closedMatch.getUserAUsername() : closedMatch.getUserBUsername();
 
         Map<String, String> payload = Map.of(
                 "type", "MATCH_CLOSED",
@@ -226,8 +262,8 @@ public class MatchService {
                 "closerUsername", closerUsername
         );
 
-        messagingTemplate.convertAndSendToUser(userA.getUsername(), "/queue/match-notifications", payload);
-        messagingTemplate.convertAndSendToUser(userB.getUsername(), "/queue/match-notifications", payload);
+        messagingTemplate.convertAndSendToUser(closedMatch.getUserAUsername(), "/queue/match-notifications", payload);
+        messagingTemplate.convertAndSendToUser(closedMatch.getUserBUsername(), "/queue/match-notifications", payload);
 
         return convertToMatchDetailsDTO(closedMatch);
     }
@@ -242,10 +278,32 @@ public class MatchService {
             throw new RuntimeException("Invalid rating request.");
         }
 
-        User ratedUser = userRepository.findById(ratingRequest.getRatedUserId()).orElseThrow();
-        ratedUser.addRating(ratingRequest.getRating());
-        userRepository.save(ratedUser);
-        badgeService.checkAndAssignBadges(ratedUser);
+        Rating rating = Rating.builder()
+                .matchId(match.getId())
+                .raterId(userId)
+                .ratedUserId(ratingRequest.getRatedUserId())
+                .gameId(match.getGameId())
+                .score(ratingRequest.getRating())
+                .feedback(ratingRequest.getFeedback())
+                .createdAt(LocalDateTime.now())
+                .build();
+        try {
+            ratingRepository.insert(rating);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("You have already rated this match.");
+        }
+
+        User ratedUser = userRepository.addRating(ratingRequest.getRatedUserId(), ratingRequest.getRating()).orElseThrow();
+        matchmakingIndex.updateRating(ratedUser.getId(), ratedUser.getRating());
+        leaderboardService.ratingSubmitted(rating, ratedUser);
+
+        int previousCount = ratedUser.getNumberOfRatings() - 1;
+        double previousRating = previousCount > 0
+                ? (ratedUser.getTotalRatingPoints() - ratingRequest.getRating()) / previousCount : 0.0;
+        if (!badgeService.isReliable(previousCount, previousRating)
+                && badgeService.isReliable(ratedUser.getNumberOfRatings(), ratedUser.getRating())) {
+            userRepository.findById(ratedUser.getId()).ifPresent(badgeService::checkAndAssignBadges);
+        }
 
         return convertToMatchDetailsDTO(match);
     }
@@ -265,12 +323,54 @@ public class MatchService {
                 .collect(Collectors.toList());
     }
 
+    public CursorPageDTO<MatchDetailsDTO> getMatchHistory(String userId, String status, String gameId, String cursor, int limit) {
+        List<MatchStatus> statuses = status == null || status.isEmpty()
+                ? Arrays.asList(MatchStatus.values())
+                : List.of(Arrays.stream(MatchStatus.values())
+                        .filter(s -> s.name().equals(status))
+                        .findFirst()
+                        .orElseThrow(() -> new RuntimeException("Invalid match status: " + status)));
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+
+        LocalDateTime beforeMatchedAt = null;
+        String beforeId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = cursor.split("_", 2);
+            try {
+                beforeMatchedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(position[0])), ZoneId.systemDefault());
+                beforeId = position[1];
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor.");
+            }
+        }
+
+        List<Match> matches = matchRepository.findHistory(userId, statuses, gameId == null || gameId.isEmpty() ? null : gameId,
+                beforeMatchedAt, beforeId, pageSize + 1);
+        String nextCursor = null;
+        if (matches.size() > pageSize) {
+            matches = matches.subList(0, pageSize);
+            Match last = matches.get(pageSize - 1);
+            nextCursor = toDate(last.getMatchedAt()).getTime() + "_" + last.getId();
+        }
+        return CursorPageDTO.<MatchDetailsDTO>builder()
+                .items(matches.stream().map(this::convertToMatchDetailsDTO).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     public MatchDetailsDTO getMatchDetails(String matchId) {
         Match match = matchRepository.findById(matchId)
                 .orElseThrow(() -> new RuntimeException("Match not found with ID: " + matchId));
         return convertToMatchDetailsDTO(match);
     }
 
+    /**
+     * Same conversion Spring Data applies to {@code LocalDateTime} fields, done up front for pipeline updates.
+     */
+    private static Date toDate(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
     private MatchDetailsDTO convertToMatchDetailsDTO(Match match) {
         return MatchDetailsDTO.builder()
                 .id(match.getId())
@@ -285,6 +385,7 @@ public class MatchService {
                 .acceptedAt(match.getAcceptedAt())
                 .declinedAt(match.getDeclinedAt())
                 .completedAt(match.getCompletedAt())
+                .cancelledAt(match.getCancelledAt())
                 .chatRoomId(match.getChatRoomId())
                 .build();
     }
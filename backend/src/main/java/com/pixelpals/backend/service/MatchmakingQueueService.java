@@ -0,0 +1,388 @@
+package com.pixelpals.backend.service;
+
+import com.pixelpals.backend.dto.QueueRequestDTO;
+import com.pixelpals.backend.dto.QueueStatsDTO;
+import com.pixelpals.backend.enumeration.MatchStatus;
+import com.pixelpals.backend.enumeration.SkillLevel;
+import com.pixelpals.backend.model.Game;
+import com.pixelpals.backend.model.Match;
+import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.repository.GameRepository;
+import com.pixelpals.backend.repository.MatchRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queue-based matchmaking: players wait in a per-game partition and a scheduled tick pairs them, matching
+ * every partition independently on a pool sized to the available cores. A player's acceptable skill distance
+ * grows by one level for every {@code widen-every-seconds} spent in the queue.
+ * <p>
+ * A player is in at most one of three states: waiting in a partition, paired by a tick but not yet claimed, or
+ * claimed while the match is written. Joining, leaving and claiming a pair hold the player's lock, and moving
+ * between waiting and paired happens under the partition's lock, so a player cannot be paired twice.
+ */
+@Service
+@RequiredArgsConstructor
+public class MatchmakingQueueService {
+
+    private static final int MAX_SKILL_DISTANCE = SkillLevel.values().length - 1;
+    private static final int USER_LOCK_STRIPES = 64;
+
+    private final MatchRepository matchRepository;
+    private final GameRepository gameRepository;
+    private final MessageService messageService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, QueuePartition> partitions = new ConcurrentHashMap<>();
+    private final Map<String, String> queuedGameByUser = new ConcurrentHashMap<>();
+    private final Map<String, QueueEntry> pairedByUser = new ConcurrentHashMap<>();
+    private final Set<String> claimedUsers = ConcurrentHashMap.newKeySet();
+    private final Object[] userLocks = newUserLocks();
+    private final ExecutorService matcherPool = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), new MatcherThreadFactory());
+    private final LongAdder matchesCreated = new LongAdder();
+    private final LongAdder totalTimeToMatchMs = new LongAdder();
+    private final LongAdder playersMatched = new LongAdder();
+    private final LongAccumulator maxTimeToMatchMs = new LongAccumulator(Long::max, 0);
+
+    @Value("${pixelpals.matchmaking.queue.widen-every-seconds:30}")
+    private long widenEverySeconds;
+
+    public void enqueue(User user, QueueRequestDTO request) {
+        Game game = gameRepository.findById(request.getGameId())
+                .orElseThrow(() -> new RuntimeException("Game not found."));
+        if (request.getPlatformName() == null || request.getPlatformName().isEmpty()) {
+            throw new RuntimeException("A platform is required to join the queue.");
+        }
+        SkillLevel skillLevel = Arrays.stream(SkillLevel.values())
+                .filter(level -> level.name().equals(request.getSkillLevel()))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Invalid skill level."));
+
+        QueueEntry entry = new QueueEntry(user.getId(), user.getUsername(), game.getId(), game.getName(),
+                request.getPlatformName(), skillLevel, System.currentTimeMillis());
+        synchronized (userLock(user.getId())) {
+            // Removing first means a tick can no longer pair the old entry, so the checks below are stable.
+            removeWaiting(user.getId());
+            if (pairedByUser.containsKey(user.getId()) || claimedUsers.contains(user.getId())) {
+                throw new RuntimeException("A match is already being created for you.");
+            }
+            partitions.computeIfAbsent(game.getId(), id -> new QueuePartition(game.getName())).add(entry);
+        }
+    }
+
+    public boolean leave(String userId) {
+        synchronized (userLock(userId)) {
+            return removeWaiting(userId) || pairedByUser.remove(userId) != null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pixelpals.matchmaking.queue.tick-ms:2000}")
+    public void matchQueuedPlayers() {
+        matchQueuedPlayers(System.currentTimeMillis());
+    }
+
+    void matchQueuedPlayers(long now) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (QueuePartition partition : partitions.values()) {
+            if (partition.size() >= 2) {
+                tasks.add(() -> {
+                    matchPartition(partition, now);
+                    return null;
+                });
+            }
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        try {
+            matcherPool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public QueueStatsDTO getStats() {
+        Map<String, Integer> depthPerGame = new HashMap<>();
+        partitions.values().forEach(partition -> depthPerGame.put(partition.gameName, partition.size()));
+        long matched = playersMatched.sum();
+        return QueueStatsDTO.builder()
+                .queueDepthPerGame(depthPerGame)
+                .totalQueued(queuedGameByUser.size())
+                .matchesCreated(matchesCreated.sum())
+                .averageTimeToMatchMs(matched == 0 ? 0.0 : (double) totalTimeToMatchMs.sum() / matched)
+                .maxTimeToMatchMs(maxTimeToMatchMs.get())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matcherPool.shutdownNow();
+    }
+
+    private void matchPartition(QueuePartition partition, long now) {
+        for (QueueEntry[] pair : partition.drainPairs(now, widenEverySeconds * 1000)) {
+            createQueuedMatch(partition, pair[0], pair[1], now);
+        }
+    }
+
+    private void createQueuedMatch(QueuePartition partition, QueueEntry a, QueueEntry b, long now) {
+        if (!claim(partition, a, b)) {
+            return;
+        }
+        Optional<Match> accepted;
+        try {
+            accepted = acceptQueuedMatch(a, b);
+        } catch (RuntimeException e) {
+            accepted = Optional.empty();
+        }
+        if (accepted.isEmpty()) {
+            requeueClaimed(partition, a);
+            requeueClaimed(partition, b);
+            return;
+        }
+        claimedUsers.remove(a.userId());
+        claimedUsers.remove(b.userId());
+        Match savedMatch = accepted.get();
+
+        matchesCreated.increment();
+        for (QueueEntry entry : List.of(a, b)) {
+            long waited = now - entry.enqueuedAt();
+            playersMatched.increment();
+            totalTimeToMatchMs.add(waited);
+            maxTimeToMatchMs.accumulate(waited);
+        }
+
+        notifyQueuedMatch(a.username(), savedMatch, b.username());
+        notifyQueuedMatch(b.username(), savedMatch, a.username());
+    }
+
+    /**
+     * Claims a pair drained by a tick if neither player left in the meantime. When only one of them is still
+     * waiting for the match, that one goes back to the queue with its original position.
+     */
+    private boolean claim(QueuePartition partition, QueueEntry a, QueueEntry b) {
+        int stripeA = lockStripe(a.userId());
+        int stripeB = lockStripe(b.userId());
+        synchronized (userLocks[Math.min(stripeA, stripeB)]) {
+            synchronized (userLocks[Math.max(stripeA, stripeB)]) {
+                boolean aPaired = pairedByUser.remove(a.userId(), a);
+                boolean bPaired = pairedByUser.remove(b.userId(), b);
+                if (aPaired && bPaired) {
+                    claimedUsers.add(a.userId());
+                    claimedUsers.add(b.userId());
+                    return true;
+                }
+                if (aPaired) {
+                    partition.add(a);
+                }
+                if (bPaired) {
+                    partition.add(b);
+                }
+                return false;
+            }
+        }
+    }
+
+    private void requeueClaimed(QueuePartition partition, QueueEntry entry) {
+        synchronized (userLock(entry.userId())) {
+            claimedUsers.remove(entry.userId());
+            partition.add(entry);
+        }
+    }
+
+    /**
+     * Writes the match the same way a request and its acceptance would: a PENDING document under the
+     * {@code pending_pair_game} guard, moved to ACCEPTED with the pair's chat room. If the two players already
+     * have a pending request for this game, that request is accepted instead of creating a second match.
+     */
+    private Optional<Match> acceptQueuedMatch(QueueEntry a, QueueEntry b) {
+        String pairKey = messageService.generateChatRoomId(a.userId(), b.userId());
+        Match match = new Match();
+        match.setUserAId(a.userId());
+        match.setUserAUsername(a.username());
+        match.setUserBId(b.userId());
+        match.setUserBUsername(b.username());
+        match.setGameId(a.gameId());
+        match.setGameName(a.gameName());
+        match.setPairKey(pairKey);
+        match.setStatus(MatchStatus.PENDING);
+        match.setMatchedAt(LocalDateTime.now());
+
+        Match pending;
+        try {
+            pending = matchRepository.insert(match);
+        } catch (DuplicateKeyException e) {
+            Optional<Match> existing = matchRepository.findByPairKeyAndGameIdAndStatus(pairKey, a.gameId(), MatchStatus.PENDING);
+            if (existing.isEmpty()) {
+                return Optional.empty();
+            }
+            pending = existing.get();
+        }
+        AggregationUpdate accept = AggregationUpdate.update()
+                .set("status").toValue(MatchStatus.ACCEPTED.name())
+                .set("acceptedAt").toValue(Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant()))
+                .set("chatRoomId").toValueOf(Fields.field("pairKey"));
+        return matchRepository.transition(pending.getId(), MatchStatus.PENDING, Criteria.where("pairKey").is(pairKey), accept);
+    }
+
+    private boolean removeWaiting(String userId) {
+        String gameId = queuedGameByUser.get(userId);
+        QueuePartition partition = gameId == null ? null : partitions.get(gameId);
+        return partition != null && partition.remove(userId);
+    }
+
+    private Object userLock(String userId) {
+        return userLocks[lockStripe(userId)];
+    }
+
+    private static int lockStripe(String userId) {
+        return Math.floorMod(userId.hashCode(), USER_LOCK_STRIPES);
+    }
+
+    private static Object[] newUserLocks() {
+        Object[] locks = new Object[USER_LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private void notifyQueuedMatch(String username, Match match, String opponentUsername) {
+        Map<String, String> payload = Map.of(
+                "type", "QUEUE_MATCH_FOUND",
+                "matchId", match.getId(),
+                "gameName", match.getGameName(),
+                "opponentUsername", opponentUsername
+        );
+        messagingTemplate.convertAndSendToUser(username, "/queue/match-notifications", payload);
+    }
+
+    private record QueueEntry(String userId, String username, String gameId, String gameName,
+                              String platformName, SkillLevel skillLevel, long enqueuedAt) {
+        int skillWindow(long now, long widenEveryMs) {
+            if (widenEveryMs <= 0) {
+                return MAX_SKILL_DISTANCE;
+            }
+            return (int) Math.min(MAX_SKILL_DISTANCE, (now - enqueuedAt) / widenEveryMs);
+        }
+    }
+
+    private final class QueuePartition {
+
+        private final String gameName;
+        private final List<QueueEntry> waiting = new ArrayList<>();
+
+        private QueuePartition(String gameName) {
+            this.gameName = gameName;
+        }
+
+        synchronized void add(QueueEntry entry) {
+            waiting.removeIf(queued -> queued.userId().equals(entry.userId()));
+            waiting.add(entry);
+            waiting.sort(Comparator.comparingLong(QueueEntry::enqueuedAt));
+            queuedGameByUser.put(entry.userId(), entry.gameId());
+        }
+
+        synchronized boolean remove(String userId) {
+            boolean removed = waiting.removeIf(entry -> entry.userId().equals(userId));
+            if (removed) {
+                queuedGameByUser.remove(userId);
+            }
+            return removed;
+        }
+
+        synchronized int size() {
+            return waiting.size();
+        }
+
+        /**
+         * Pairs players oldest-first: each one takes the longest-waiting opponent on the same platform at the
+         * closest skill level that both players' current windows allow. Paired players leave the queue and are
+         * recorded as paired before the lock is released, so a concurrent join or leave sees one state or the other.
+         */
+        synchronized List<QueueEntry[]> drainPairs(long now, long widenEveryMs) {
+            Map<String, List<Deque<QueueEntry>>> buckets = new HashMap<>();
+            for (QueueEntry entry : waiting) {
+                buckets.computeIfAbsent(entry.platformName(), platform -> {
+                    List<Deque<QueueEntry>> bySkill = new ArrayList<>();
+                    for (int i = 0; i <= MAX_SKILL_DISTANCE; i++) {
+                        bySkill.add(new ArrayDeque<>());
+                    }
+                    return bySkill;
+                }).get(entry.skillLevel().ordinal()).addLast(entry);
+            }
+
+            Set<QueueEntry> paired = new HashSet<>();
+            List<QueueEntry[]> pairs = new ArrayList<>();
+            for (QueueEntry entry : waiting) {
+                if (paired.contains(entry)) {
+                    continue;
+                }
+                List<Deque<QueueEntry>> bySkill = buckets.get(entry.platformName());
+                int window = entry.skillWindow(now, widenEveryMs);
+                int skill = entry.skillLevel().ordinal();
+                QueueEntry opponent = null;
+                for (int distance = 0; distance <= window && opponent == null; distance++) {
+                    opponent = oldestAvailable(bySkill, skill - distance, entry, distance, paired, now, widenEveryMs);
+                    if (opponent == null && distance > 0) {
+                        opponent = oldestAvailable(bySkill, skill + distance, entry, distance, paired, now, widenEveryMs);
+                    }
+                }
+                if (opponent != null) {
+                    paired.add(entry);
+                    paired.add(opponent);
+                    pairs.add(new QueueEntry[]{entry, opponent});
+                }
+            }
+            waiting.removeIf(paired::contains);
+            for (QueueEntry entry : paired) {
+                queuedGameByUser.remove(entry.userId(), entry.gameId());
+                pairedByUser.put(entry.userId(), entry);
+            }
+            return pairs;
+        }
+
+        private static QueueEntry oldestAvailable(List<Deque<QueueEntry>> bySkill, int skill, QueueEntry seeker,
+                                                  int distance, Set<QueueEntry> paired, long now, long widenEveryMs) {
+            if (skill < 0 || skill >= bySkill.size()) {
+                return null;
+            }
+            for (QueueEntry candidate : bySkill.get(skill)) {
+                if (candidate != seeker && !paired.contains(candidate)
+                        && candidate.skillWindow(now, widenEveryMs) >= distance) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class MatcherThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "matchmaking-queue-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.pixelpals.backend.service;
+
+import com.pixelpals.backend.model.ChatSequence;
+import com.pixelpals.backend.repository.MessageBucketRepository;
+import com.pixelpals.backend.repository.MessageWriteBehindBuffer;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Periodically moves chat messages older than {@code age-days} out of {@code messages} into per-room, per-day
+ * buckets. The cutoff is aligned to midnight so each day is archived in one piece, and never falls on a day
+ * that may still receive queued messages from {@link MessageWriteBehindBuffer}. A pass runs on its own thread
+ * so it never holds up the other scheduled jobs, and a tick that finds the previous pass still running is skipped.
+ */
+@Service
+@RequiredArgsConstructor
+public class MessageColdStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageColdStorageService.class);
+
+    private final MessageBucketRepository messageBucketRepository;
+    private final MessageWriteBehindBuffer messageWriteBehindBuffer;
+    private final MongoTemplate mongoTemplate;
+
+    private final ExecutorService archiver = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${pixelpals.messages.cold-storage.enabled:false}")
+    private boolean enabled;
+
+    @Value("${pixelpals.messages.cold-storage.age-days:30}")
+    private long ageDays;
+
+    @Scheduled(fixedDelayString = "${pixelpals.messages.cold-storage.interval-ms:3600000}",
+            initialDelayString = "${pixelpals.messages.cold-storage.interval-ms:3600000}")
+    public void scheduleArchive() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        archiver.execute(() -> {
+            try {
+                archiveOldMessages();
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        archiver.shutdownNow();
+    }
+
+    private void archiveOldMessages() {
+        LocalDateTime byAge = LocalDate.now().minusDays(ageDays).atStartOfDay();
+        LocalDateTime flushed = LocalDateTime.now().minus(messageWriteBehindBuffer.flushHorizon()).toLocalDate().atStartOfDay();
+        LocalDateTime cutoff = flushed.isBefore(byAge) ? flushed : byAge;
+        Query rooms = new Query();
+        rooms.fields().include("chatRoomId");
+        long archived = 0;
+        try (Stream<ChatSequence> sequences = mongoTemplate.stream(rooms, ChatSequence.class)) {
+            archived = sequences.mapToLong(room -> {
+                try {
+                    return messageBucketRepository.archiveOlderThan(room.getChatRoomId(), cutoff);
+                } catch (RuntimeException e) {
+                    logger.error("Archiving chat room {} failed: {}", room.getChatRoomId(), e.getMessage());
+                    return 0;
+                }
+            }).sum();
+        }
+        if (archived > 0) {
+            logger.info("Archived {} messages older than {}", archived, cutoff);
+        }
+    }
+}
@@ -1,63 +1,110 @@
 package com.pixelpals.backend.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pixelpals.backend.dto.CursorPageDTO;
 import com.pixelpals.backend.dto.MessageDTO;
+import com.pixelpals.backend.dto.MessageSearchPageDTO;
+import com.pixelpals.backend.dto.MessageSearchResultDTO;
+import com.pixelpals.backend.dto.RecentMessagesCacheStatsDTO;
 import com.pixelpals.backend.model.Message;
-import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.model.UnreadCounter;
+import com.pixelpals.backend.repository.ChatSequenceRepository;
+import com.pixelpals.backend.repository.DisplayNameCache;
+import com.pixelpals.backend.repository.MatchRepository;
+import com.pixelpals.backend.repository.MessageBucketRepository;
 import com.pixelpals.backend.repository.MessageRepository;
-import com.pixelpals.backend.repository.UserRepository;
+import com.pixelpals.backend.repository.MessageWriteBehindBuffer;
+import com.pixelpals.backend.repository.RecentMessagesCache;
+import com.pixelpals.backend.repository.UnreadCounterRepository;
 import lombok.RequiredArgsConstructor;
+import com.mongodb.MongoExecutionTimeoutException;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.Normalizer;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class MessageService {
 
     private final MessageRepository messageRepository;
-    private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final MessageBucketRepository messageBucketRepository;
+    private final UnreadCounterRepository unreadCounterRepository;
+    private final ChatSequenceRepository chatSequenceRepository;
+    private final MatchRepository matchRepository;
+    private final DisplayNameCache displayNameCache;
+    private final MessageWriteBehindBuffer messageWriteBehindBuffer;
+    private final RecentMessagesCache recentMessagesCache;
+    private final UnreadNotificationService unreadNotificationService;
+    private final ObjectMapper objectMapper;
+
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
+    private static final int EXPORT_BATCH_SIZE = 500;
+    private static final int MAX_SEARCH_PAGE_SIZE = 50;
+    private static final long SEQ_GAP_GRACE_SECONDS = 60;
+    private static final Comparator<Message> CHRONOLOGICAL =
+            Comparator.comparing(Message::getTimestamp).thenComparing(Message::getId);
+    private static final Comparator<Message> NEWEST_FIRST = CHRONOLOGICAL.reversed();
+    private static final int MAX_SEARCH_OFFSET = 1000;
+    private static final long SEARCH_MAX_TIME_MS = 2000;
+    private static final Comparator<MessageRepository.ScoredMessage> BEST_MATCH_FIRST = Comparator
+            .comparingDouble(MessageRepository.ScoredMessage::score).reversed()
+            .thenComparing(result -> result.message().getId());
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{M}\\p{N}]+");
+    private static final Pattern SEARCH_TOKEN = Pattern.compile("-?\"[^\"]*\"?|\\S+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
 
     public MessageDTO sendMessage(MessageDTO messageDTO) {
-        User sender = userRepository.findById(messageDTO.getSenderId())
+        String senderUsername = displayNameCache.username(messageDTO.getSenderId())
                 .orElseThrow(() -> new RuntimeException("Mittente non trovato."));
-        User receiver = userRepository.findById(messageDTO.getReceiverId())
+        String receiverUsername = displayNameCache.username(messageDTO.getReceiverId())
                 .orElseThrow(() -> new RuntimeException("Destinatario non trovato."));
 
         Message message = new Message();
-        message.setSender(sender);
-        message.setReceiver(receiver);
+        message.setSenderId(messageDTO.getSenderId());
+        message.setSenderUsername(senderUsername);
+        message.setReceiverId(messageDTO.getReceiverId());
+        message.setReceiverUsername(receiverUsername);
         message.setContent(messageDTO.getContent());
         message.setTimestamp(LocalDateTime.now());
         message.setRead(false);
         message.setChatRoomId(messageDTO.getChatRoomId());
+        message.setSeq(chatSequenceRepository.next(messageDTO.getChatRoomId(), message.getSenderId(), message.getReceiverId()));
 
-        Message savedMessage = messageRepository.save(message);
-
-        Map<String, Integer> unreadCounts = getUnreadCountsPerChat(receiver.getId());
-        String type = message.getChatRoomId().contains("_") ? "CHAT_FRIEND" : "CHAT_MATCH";
+        Message savedMessage;
+        if (messageWriteBehindBuffer.isEnabled()) {
+            message.setId(new ObjectId().toHexString());
+            messageWriteBehindBuffer.submit(message);
+            savedMessage = message;
+        } else {
+            savedMessage = messageRepository.save(message);
+            unreadCounterRepository.increment(message.getReceiverId(), message.getChatRoomId());
+        }
+        recentMessagesCache.append(savedMessage.getChatRoomId(), convertToDTO(savedMessage));
 
-        messagingTemplate.convertAndSendToUser(
-                receiver.getUsername(),
-                "/queue/unread-updates",
-                Map.of(
-                        "type", type,
-                        "chatRoomId", message.getChatRoomId(),
-                        "unreadCount", unreadCounts.getOrDefault(message.getChatRoomId(), 1)
-                )
-        );
+        unreadNotificationService.messageReceived(message.getReceiverId(), receiverUsername, message.getChatRoomId());
 
         return convertToDTO(savedMessage);
     }
 
     public void markMessagesAsRead(String userId, String chatRoomId) {
-        List<Message> unreadMessages = messageRepository.findByChatRoomIdAndReceiverIdAndReadFalse(chatRoomId, userId);
-        unreadMessages.forEach(msg -> msg.setRead(true));
-        messageRepository.saveAll(unreadMessages);
+        LocalDateTime readAt = LocalDateTime.now();
+        unreadCounterRepository.markRead(userId, chatRoomId, readAt);
+        messageRepository.markRead(chatRoomId, userId, readAt);
+        recentMessagesCache.markRead(chatRoomId, userId, readAt);
     }
 
     public String generateChatRoomId(String user1Id, String user2Id) {
@@ -66,42 +113,356 @@ public class MessageService {
         return String.join("_", userIds);
     }
 
-    public List<MessageDTO> getChatHistoryBetweenUsers(String user1Id, String user2Id) {
-        String chatRoomId = generateChatRoomId(user1Id, user2Id);
-        List<Message> messages = messageRepository.findByChatRoomId(chatRoomId, Sort.by(Sort.Direction.ASC, "timestamp"));
-        return messages.stream()
+    public CursorPageDTO<MessageDTO> getChatHistoryBetweenUsers(String user1Id, String user2Id, String before, int limit) {
+        return getChatHistoryPage(generateChatRoomId(user1Id, user2Id), before, limit);
+    }
+
+    public CursorPageDTO<MessageDTO> getChatHistoryForMatch(String userId, String matchId, String before, int limit) {
+        checkChatRoomAccess(userId, matchId);
+        return getChatHistoryPage(matchId, before, limit);
+    }
+
+    /**
+     * The {@code limit} messages preceding the {@code before} cursor (the latest ones when it is absent), in
+     * chronological order, with the cursor of the next older page if there is one. The first page is served
+     * from {@link RecentMessagesCache} when the room is cached, and seeds it otherwise.
+     */
+    private CursorPageDTO<MessageDTO> getChatHistoryPage(String chatRoomId, String before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        boolean firstPage = before == null || before.isEmpty();
+        LocalDateTime beforeTimestamp = null;
+        String beforeId = null;
+        if (!firstPage) {
+            String[] position = before.split("_", 2);
+            try {
+                beforeTimestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(position[0])), ZoneId.systemDefault());
+                beforeId = position[1];
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Cursore non valido.");
+            }
+        }
+
+        List<MessageDTO> messages = firstPage
+                ? recentMessagesCache.latest(chatRoomId, pageSize + 1).orElse(null)
+                : null;
+        if (messages == null) {
+            messages = loadPageBefore(chatRoomId, beforeTimestamp, beforeId, pageSize + 1);
+            if (firstPage) {
+                recentMessagesCache.seed(chatRoomId, messages, messages.size() <= pageSize);
+            }
+        }
+
+        String nextCursor = null;
+        List<MessageDTO> page = new ArrayList<>(messages.subList(0, Math.min(pageSize, messages.size())));
+        if (messages.size() > pageSize) {
+            MessageDTO oldest = page.get(pageSize - 1);
+            nextCursor = oldest.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + "_" + oldest.getId();
+        }
+        Collections.reverse(page);
+        return CursorPageDTO.<MessageDTO>builder()
+                .items(page)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Up to {@code limit} messages older than the cursor, newest first, with read flags from the room's read
+     * watermarks applied. When the hot messages do not fill the page, the archived day buckets are read from the
+     * same cursor and both tiers are merged by id: a message written late can sit in both, or in the hot tier
+     * behind newer archived ones, until the next archiving run.
+     */
+    private List<MessageDTO> loadPageBefore(String chatRoomId, LocalDateTime beforeTimestamp, String beforeId, int limit) {
+        List<Message> found = messageRepository.findPageBefore(chatRoomId, beforeTimestamp, beforeId, limit);
+        if (found.size() < limit) {
+            found = mergeById(found, messageBucketRepository.findPageBefore(chatRoomId, beforeTimestamp, beforeId, limit),
+                    NEWEST_FIRST, limit);
+        }
+        List<MessageDTO> messages = found.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        applyReadWatermarks(chatRoomId, messages);
+        return messages;
     }
 
-    public List<MessageDTO> getChatHistoryForMatch(String matchId) {
-        List<Message> messages = messageRepository.findByChatRoomId(matchId, Sort.by(Sort.Direction.ASC, "timestamp"));
-        return messages.stream()
+    private static List<Message> mergeById(List<Message> hot, List<Message> archived, Comparator<Message> order, int limit) {
+        Map<String, Message> merged = new LinkedHashMap<>();
+        archived.forEach(message -> merged.put(message.getId(), message));
+        hot.forEach(message -> merged.put(message.getId(), message));
+        return merged.values().stream()
+                .sorted(order)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public CursorPageDTO<MessageDTO> getMessagesSinceBetweenUsers(String user1Id, String user2Id, long sinceSeq, int limit) {
+        return getMessagesSince(generateChatRoomId(user1Id, user2Id), sinceSeq, limit);
+    }
+
+    public CursorPageDTO<MessageDTO> getMessagesSinceForMatch(String userId, String matchId, long sinceSeq, int limit) {
+        checkChatRoomAccess(userId, matchId);
+        return getMessagesSince(matchId, sinceSeq, limit);
+    }
+
+    /**
+     * Catch-up for a reconnecting client: the messages of a room it can read with a sequence number above
+     * {@code sinceSeq}.
+     */
+    public CursorPageDTO<MessageDTO> syncChatRoom(String userId, String chatRoomId, long sinceSeq, int limit) {
+        checkChatRoomAccess(userId, chatRoomId);
+        return getMessagesSince(chatRoomId, sinceSeq, limit);
+    }
+
+    /**
+     * Friend rooms are named after the two friends' ids; any other room is a match chat, readable by the two
+     * players of that match.
+     */
+    public void checkChatRoomAccess(String userId, String chatRoomId) {
+        boolean member;
+        if (chatRoomId == null || userId == null) {
+            member = false;
+        } else if (chatRoomId.contains("_")) {
+            member = Arrays.asList(chatRoomId.split("_")).contains(userId);
+        } else {
+            member = matchRepository.findById(chatRoomId)
+                    .map(match -> userId.equals(match.getUserAId()) || userId.equals(match.getUserBId()))
+                    .orElse(false);
+        }
+        if (!member) {
+            throw new AccessDeniedException("Chat non accessibile.");
+        }
+    }
+
+    /**
+     * Writes the whole room to {@code out} as NDJSON, one message per line, oldest first: the archived day
+     * buckets merged with the hot messages read through a cursor of {@code EXPORT_BATCH_SIZE} documents. Both
+     * tiers come in timestamp and id order, so a message the archiver has bucketed but not yet deleted shows up
+     * at the same position in both and is written once, from the hot copy. Only the current batch or bucket is
+     * held in memory, whatever the length of the conversation.
+     */
+    public void exportChatRoom(String chatRoomId, OutputStream out) throws IOException {
+        Map<String, LocalDateTime> readWatermarks = readWatermarks(chatRoomId);
+        try (Stream<Message> archived = messageBucketRepository.streamArchived(chatRoomId);
+             Stream<Message> hot = messageRepository.streamChatRoom(chatRoomId, EXPORT_BATCH_SIZE)) {
+            Iterator<Message> archivedMessages = archived.iterator();
+            Iterator<Message> hotMessages = hot.iterator();
+            Message nextArchived = archivedMessages.hasNext() ? archivedMessages.next() : null;
+            Message nextHot = hotMessages.hasNext() ? hotMessages.next() : null;
+            int written = 0;
+            while (nextArchived != null || nextHot != null) {
+                int order = nextArchived == null ? 1 : nextHot == null ? -1 : CHRONOLOGICAL.compare(nextArchived, nextHot);
+                Message message;
+                if (order < 0) {
+                    message = nextArchived;
+                    nextArchived = archivedMessages.hasNext() ? archivedMessages.next() : null;
+                } else {
+                    if (order == 0) {
+                        nextArchived = archivedMessages.hasNext() ? archivedMessages.next() : null;
+                    }
+                    message = nextHot;
+                    nextHot = hotMessages.hasNext() ? hotMessages.next() : null;
+                }
+                MessageDTO dto = convertToDTO(message);
+                dto.setRead(dto.isRead() || isBeforeWatermark(dto, readWatermarks));
+                out.write(objectMapper.writeValueAsBytes(dto));
+                out.write('\n');
+                if (++written % EXPORT_BATCH_SIZE == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Up to {@code limit} messages with a sequence number above {@code sinceSeq}, in sequence order, so the
+     * cost follows the size of the gap rather than of the room. Both tiers are read and merged, since a late
+     * write can still be hot while higher numbers are already archived. Numbers are allocated before the message is written, so a later number can be visible
+     * while an earlier one is still queued; the page stops at the first missing number and the client resumes
+     * from the last one it got. A number still missing after {@code SEQ_GAP_GRACE_SECONDS} belongs to a send
+     * that failed and is skipped. The next cursor is only set when a full contiguous page was returned.
+     */
+    private CursorPageDTO<MessageDTO> getMessagesSince(String chatRoomId, long sinceSeq, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        List<Message> found = mergeById(
+                messageRepository.findByChatRoomIdAndSeqGreaterThan(chatRoomId, sinceSeq, PageRequest.of(0, pageSize + 1, Sort.by("seq"))),
+                messageBucketRepository.findAfterSeq(chatRoomId, sinceSeq, pageSize + 1),
+                Comparator.comparing(Message::getSeq), pageSize + 1);
+        LocalDateTime settled = LocalDateTime.now().minusSeconds(SEQ_GAP_GRACE_SECONDS);
+        List<Message> contiguous = new ArrayList<>();
+        long expected = sinceSeq + 1;
+        for (Message message : found) {
+            if (message.getSeq() != expected && message.getTimestamp().isAfter(settled)) {
+                break;
+            }
+            contiguous.add(message);
+            expected = message.getSeq() + 1;
+        }
+        List<MessageDTO> messages = contiguous.stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
+        String nextCursor = null;
+        if (messages.size() > pageSize) {
+            messages = new ArrayList<>(messages.subList(0, pageSize));
+            nextCursor = String.valueOf(messages.get(pageSize - 1).getSeq());
+        }
+        applyReadWatermarks(chatRoomId, messages);
+        return CursorPageDTO.<MessageDTO>builder()
+                .items(messages)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private void applyReadWatermarks(String chatRoomId, List<MessageDTO> messages) {
+        Map<String, LocalDateTime> readWatermarks = readWatermarks(chatRoomId);
+        messages.forEach(dto -> dto.setRead(dto.isRead() || isBeforeWatermark(dto, readWatermarks)));
+    }
+
+    private Map<String, LocalDateTime> readWatermarks(String chatRoomId) {
+        Map<String, LocalDateTime> readWatermarks = new HashMap<>();
+        unreadCounterRepository.findByChatRoomId(chatRoomId).stream()
+                .filter(counter -> counter.getLastReadAt() != null)
+                .forEach(counter -> readWatermarks.put(counter.getUserId(), counter.getLastReadAt()));
+        return readWatermarks;
+    }
+
+    private static boolean isBeforeWatermark(MessageDTO message, Map<String, LocalDateTime> readWatermarks) {
+        LocalDateTime lastReadAt = readWatermarks.get(message.getReceiverId());
+        return lastReadAt != null && message.getTimestamp() != null && !message.getTimestamp().isAfter(lastReadAt);
     }
 
     public int getTotalUnreadCount(String userId) {
-        return messageRepository.countByReceiverIdAndReadFalse(userId);
+        return getUnreadCountsPerChat(userId).values().stream().mapToInt(Integer::intValue).sum();
     }
 
     public Map<String, Integer> getUnreadCountsPerChat(String userId) {
-        List<Message> unreadMessages = messageRepository.findByReceiverIdAndReadFalse(userId);
-        return unreadMessages.stream()
-                .collect(Collectors.groupingBy(Message::getChatRoomId, Collectors.summingInt(msg -> 1)));
+        return unreadCounterRepository.findByUserIdAndCountGreaterThan(userId, 0).stream()
+                .collect(Collectors.toMap(UnreadCounter::getChatRoomId, UnreadCounter::getCount));
+    }
+
+    /**
+     * Full-text search over the rooms the user belongs to, or over one of them, best matches first. Each room is
+     * searched on its own through the (chatRoomId, content) text index and the results are merged by score, then
+     * id. Each result carries the [start, end) offsets of the matched words in its content. The cursor is the
+     * offset of the next page; searches are capped at {@code MAX_SEARCH_OFFSET} results and
+     * {@code SEARCH_MAX_TIME_MS} overall. Rooms left unsearched when time runs out mark the page as partial.
+     * Archived messages are not searched.
+     */
+    public MessageSearchPageDTO searchMessages(String userId, String query, String chatRoomId, String cursor, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Testo di ricerca mancante.");
+        }
+        if (chatRoomId != null) {
+            checkChatRoomAccess(userId, chatRoomId);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_PAGE_SIZE));
+        int offset;
+        try {
+            offset = cursor == null || cursor.isEmpty() ? 0 : Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Cursore non valido.");
+        }
+        if (offset < 0 || offset >= MAX_SEARCH_OFFSET) {
+            throw new RuntimeException("Cursore non valido.");
+        }
+
+        List<String> chatRoomIds = chatRoomId != null ? List.of(chatRoomId) : chatSequenceRepository.findChatRoomIds(userId);
+        int perRoom = offset + pageSize + 1;
+        long deadline = System.currentTimeMillis() + SEARCH_MAX_TIME_MS;
+        boolean partial = false;
+        List<MessageRepository.ScoredMessage> found = new ArrayList<>();
+        for (String room : chatRoomIds) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                partial = true;
+                break;
+            }
+            try {
+                found.addAll(messageRepository.searchText(room, query, perRoom, remaining));
+            } catch (MongoExecutionTimeoutException e) {
+                partial = true;
+                break;
+            }
+        }
+        found.sort(BEST_MATCH_FIRST);
+
+        String nextCursor = found.size() > offset + pageSize && offset + pageSize < MAX_SEARCH_OFFSET
+                ? String.valueOf(offset + pageSize)
+                : null;
+        Set<String> terms = highlightTerms(query);
+        List<MessageSearchResultDTO> results = found.stream()
+                .skip(offset)
+                .limit(pageSize)
+                .map(result -> MessageSearchResultDTO.builder()
+                        .message(convertToDTO(result.message()))
+                        .score(result.score())
+                        .highlights(highlights(result.message().getContent(), terms))
+                        .build())
+                .collect(Collectors.toList());
+        return MessageSearchPageDTO.builder()
+                .items(results)
+                .nextCursor(nextCursor)
+                .partial(partial)
+                .build();
+    }
+
+    /**
+     * The words of the search that can match, folded like {@link #foldTerm}. Negated words and phrases
+     * ({@code -word}, {@code -"some phrase"}) never appear in a result, so they are not highlighted; the words of
+     * a quoted phrase are highlighted one by one.
+     */
+    private static Set<String> highlightTerms(String query) {
+        Set<String> terms = new HashSet<>();
+        Matcher tokens = SEARCH_TOKEN.matcher(query);
+        while (tokens.find()) {
+            String token = tokens.group();
+            if (token.startsWith("-")) {
+                continue;
+            }
+            Matcher words = WORD.matcher(token);
+            while (words.find()) {
+                terms.add(foldTerm(words.group()));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Lower case without diacritics, matching the text index's case- and diacritic-insensitive comparison.
+     */
+    private static String foldTerm(String word) {
+        return DIACRITICS.matcher(Normalizer.normalize(word, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static List<int[]> highlights(String content, Set<String> terms) {
+        List<int[]> ranges = new ArrayList<>();
+        if (content == null) {
+            return ranges;
+        }
+        Matcher words = WORD.matcher(content);
+        while (words.find()) {
+            if (terms.contains(foldTerm(words.group()))) {
+                ranges.add(new int[]{words.start(), words.end()});
+            }
+        }
+        return ranges;
+    }
+
+    public RecentMessagesCacheStatsDTO getRecentMessagesCacheStats() {
+        return recentMessagesCache.getStats();
     }
 
     private MessageDTO convertToDTO(Message message) {
         return MessageDTO.builder()
                 .id(message.getId())
-                .senderId(message.getSender().getId())
-                .senderUsername(message.getSender().getUsername())
-                .receiverId(message.getReceiver().getId())
-                .receiverUsername(message.getReceiver().getUsername())
+                .senderId(message.getSenderId())
+                .senderUsername(message.getSenderUsername())
+                .receiverId(message.getReceiverId())
+                .receiverUsername(message.getReceiverUsername())
                 .content(message.getContent())
                 .timestamp(message.getTimestamp())
                 .read(message.isRead())
                 .chatRoomId(message.getChatRoomId())
+                .seq(message.getSeq())
                 .build();
     }
 }
@@ -0,0 +1,129 @@
+package com.pixelpals.backend.service;
+
+import com.pixelpals.backend.enumeration.MatchStatus;
+import com.pixelpals.backend.model.Match;
+import com.pixelpals.backend.repository.MatchRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cancels PENDING match requests that have not been answered within {@code expiry-minutes}. Deadlines live in
+ * a hashed timing wheel advanced by a scheduled tick; expired requests are cancelled in one batch per tick.
+ * Accepted or declined matches are not removed from the wheel, the batch update only touches PENDING ones.
+ */
+@Service
+@RequiredArgsConstructor
+public class PendingMatchExpiryService {
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final MatchRepository matchRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${pixelpals.matchmaking.pending.expiry-minutes:1440}")
+    private long expiryMinutes;
+
+    @Value("${pixelpals.matchmaking.pending.tick-ms:1000}")
+    private long tickMs;
+
+    private TimingWheel wheel;
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimingWheel(WHEEL_SIZE, tickMs, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedulePendingMatches() {
+        matchRepository.findMatchedAtByStatus(MatchStatus.PENDING).forEach(this::schedule);
+    }
+
+    public void schedule(Match match) {
+        LocalDateTime requestedAt = match.getMatchedAt() != null ? match.getMatchedAt() : LocalDateTime.now();
+        long deadline = requestedAt.plusMinutes(expiryMinutes).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        wheel.add(match.getId(), deadline);
+    }
+
+    @Scheduled(fixedDelayString = "${pixelpals.matchmaking.pending.tick-ms:1000}")
+    public void expireDueMatches() {
+        List<String> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Match> cancelled = matchRepository.expirePending(due, LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+        for (Match match : cancelled) {
+            Map<String, String> payload = Map.of(
+                    "type", "MATCH_EXPIRED",
+                    "matchId", match.getId(),
+                    "gameName", match.getGameName()
+            );
+            messagingTemplate.convertAndSendToUser(match.getUserAUsername(), "/queue/match-notifications", payload);
+            messagingTemplate.convertAndSendToUser(match.getUserBUsername(), "/queue/match-notifications", payload);
+        }
+    }
+
+    static final class TimingWheel {
+
+        private final List<Deadline>[] buckets;
+        private final int mask;
+        private final long tickMs;
+        private final long startMs;
+        private long currentTick;
+
+        @SuppressWarnings("unchecked")
+        TimingWheel(int size, long tickMs, long startMs) {
+            this.buckets = new List[size];
+            for (int i = 0; i < size; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+            this.mask = size - 1;
+            this.tickMs = Math.max(1, tickMs);
+            this.startMs = startMs;
+        }
+
+        synchronized void add(String matchId, long deadlineMs) {
+            long tick = Math.max(currentTick + 1, (deadlineMs - startMs + tickMs - 1) / tickMs);
+            buckets[(int) (tick & mask)].add(new Deadline(matchId, tick));
+        }
+
+        /**
+         * Moves the wheel up to {@code nowMs} and returns the ids whose deadline has passed. Each bucket is
+         * visited at most once per call; entries due in a later round stay where they are.
+         */
+        synchronized List<String> advance(long nowMs) {
+            long targetTick = (nowMs - startMs) / tickMs;
+            List<String> due = new ArrayList<>();
+            if (targetTick <= currentTick) {
+                return due;
+            }
+            long steps = Math.min(targetTick - currentTick, buckets.length);
+            for (long step = 1; step <= steps; step++) {
+                buckets[(int) ((currentTick + step) & mask)].removeIf(deadline -> {
+                    if (deadline.tick() <= targetTick) {
+                        due.add(deadline.matchId());
+                        return true;
+                    }
+                    return false;
+                });
+            }
+            currentTick = targetTick;
+            return due;
+        }
+    }
+
+    private record Deadline(String matchId, long tick) {
+    }
+}
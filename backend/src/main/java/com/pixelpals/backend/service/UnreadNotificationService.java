@@ -0,0 +1,77 @@
+package com.pixelpals.backend.service;
+
+import com.pixelpals.backend.model.UnreadCounter;
+import com.pixelpals.backend.repository.UnreadCounterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces {@code /queue/unread-updates} pushes per receiver. New messages are only recorded here; every
+ * {@code window-ms} each receiver with pending messages gets one payload carrying the current per-chat and
+ * total unread counts, read once for that receiver, and how many friend and match messages arrived since the
+ * previous push.
+ */
+@Service
+@RequiredArgsConstructor
+public class UnreadNotificationService {
+
+    private final UnreadCounterRepository unreadCounterRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+
+    public void messageReceived(String receiverId, String receiverUsername, String chatRoomId) {
+        pending.compute(receiverId, (id, update) -> {
+            PendingUpdate merged = update != null ? update : new PendingUpdate(receiverUsername);
+            merged.chatRoomId = chatRoomId;
+            if (chatRoomId.contains("_")) {
+                merged.friendMessages++;
+            } else {
+                merged.matchMessages++;
+            }
+            return merged;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${pixelpals.messages.unread-notify.window-ms:250}")
+    public void flush() {
+        for (String receiverId : pending.keySet()) {
+            PendingUpdate update = pending.remove(receiverId);
+            if (update != null) {
+                send(receiverId, update);
+            }
+        }
+    }
+
+    private void send(String receiverId, PendingUpdate update) {
+        Map<String, Integer> unreadCountsPerChat = unreadCounterRepository.findByUserIdAndCountGreaterThan(receiverId, 0).stream()
+                .collect(Collectors.toMap(UnreadCounter::getChatRoomId, UnreadCounter::getCount));
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("type", update.chatRoomId.contains("_") ? "CHAT_FRIEND" : "CHAT_MATCH");
+        payload.put("chatRoomId", update.chatRoomId);
+        payload.put("unreadCount", unreadCountsPerChat.getOrDefault(update.chatRoomId, 0));
+        payload.put("totalUnreadCount", unreadCountsPerChat.values().stream().mapToInt(Integer::intValue).sum());
+        payload.put("unreadCountsPerChat", unreadCountsPerChat);
+        payload.put("friendMessages", update.friendMessages);
+        payload.put("matchMessages", update.matchMessages);
+        messagingTemplate.convertAndSendToUser(update.receiverUsername, "/queue/unread-updates", payload);
+    }
+
+    private static final class PendingUpdate {
+        final String receiverUsername;
+        String chatRoomId;
+        int friendMessages;
+        int matchMessages;
+
+        PendingUpdate(String receiverUsername) {
+            this.receiverUsername = receiverUsername;
+        }
+    }
+}
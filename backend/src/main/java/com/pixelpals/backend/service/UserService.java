@@ -3,10 +3,14 @@ package com.pixelpals.backend.service;
 import com.pixelpals.backend.enumeration.FriendshipStatus;
 import com.pixelpals.backend.enumeration.SkillLevel;
 import com.pixelpals.backend.model.*;
+import com.pixelpals.backend.repository.DisplayNameCache;
+import com.pixelpals.backend.repository.FriendshipGraph;
 import com.pixelpals.backend.repository.FriendshipRepository;
 import com.pixelpals.backend.repository.GameRepository;
+import com.pixelpals.backend.repository.MatchmakingIndex;
 import com.pixelpals.backend.repository.PlatformRepository;
 import com.pixelpals.backend.repository.UserRepository;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -27,19 +31,31 @@ public class UserService implements UserDetailsService {
     private final PasswordEncoder passwordEncoder;
     private final CloudinaryService cloudinaryService;
     private final FriendshipRepository friendshipRepository;
+    private final FriendshipGraph friendshipGraph;
+    private final MatchmakingIndex matchmakingIndex;
+    private final DisplayNameCache displayNameCache;
+    private final LeaderboardService leaderboardService;
 
     public UserService(UserRepository userRepository,
                        GameRepository gameRepository,
                        PlatformRepository platformRepository,
                        PasswordEncoder passwordEncoder,
                        CloudinaryService cloudinaryService,
-                       FriendshipRepository friendshipRepository) {
+                       FriendshipRepository friendshipRepository,
+                       FriendshipGraph friendshipGraph,
+                       MatchmakingIndex matchmakingIndex,
+                       DisplayNameCache displayNameCache,
+                       LeaderboardService leaderboardService) {
         this.userRepository = userRepository;
         this.gameRepository = gameRepository;
         this.platformRepository = platformRepository;
         this.passwordEncoder = passwordEncoder;
         this.cloudinaryService = cloudinaryService;
         this.friendshipRepository = friendshipRepository;
+        this.friendshipGraph = friendshipGraph;
+        this.matchmakingIndex = matchmakingIndex;
+        this.displayNameCache = displayNameCache;
+        this.leaderboardService = leaderboardService;
     }
 
     public User updateAvatarUrl(String identifier, String avatarUrl) {
@@ -47,7 +63,9 @@ public class UserService implements UserDetailsService {
                 .or(() -> userRepository.findByUsername(identifier))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         user.setAvatarUrl(avatarUrl);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        matchmakingIndex.index(saved);
+        return saved;
     }
 
     public User uploadAndSetAvatar(String identifier, MultipartFile file) throws IOException {
@@ -85,7 +103,9 @@ public class UserService implements UserDetailsService {
     }
 
     public User createUser(User user) {
-        return saveUser(user);
+        User created = saveUser(user);
+        matchmakingIndex.index(created);
+        return created;
     }
 
     public List<User> getAllUsers() {
@@ -105,6 +125,10 @@ public class UserService implements UserDetailsService {
 
     public void deleteUser(String id) {
         userRepository.deleteById(id);
+        matchmakingIndex.remove(id);
+        displayNameCache.evictUser(id);
+        leaderboardService.removeUser(id);
+        friendshipGraph.removeUser(id);
     }
 
     public User updateAvailability(String identifier, List<TimeSlot> timeSlots) {
@@ -112,7 +136,9 @@ public class UserService implements UserDetailsService {
                 .or(() -> userRepository.findByUsername(identifier))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
         user.setAvailability(timeSlots);
-        return userRepository.save(user);
+        User updated = userRepository.save(user);
+        matchmakingIndex.index(updated);
+        return updated;
     }
 
     public boolean updatePreferredGames(String identifier, List<String> gameNames) {
@@ -127,7 +153,7 @@ public class UserService implements UserDetailsService {
         if (games.isEmpty() && !gameNames.isEmpty()) return false;
 
         user.setPreferredGames(games);
-        userRepository.save(user);
+        matchmakingIndex.index(userRepository.save(user));
         return true;
     }
 
@@ -143,7 +169,7 @@ public class UserService implements UserDetailsService {
         if (platforms.isEmpty() && !platformNames.isEmpty()) return false;
 
         user.setPlatforms(platforms);
-        userRepository.save(user);
+        matchmakingIndex.index(userRepository.save(user));
         return true;
     }
 
@@ -158,14 +184,19 @@ public class UserService implements UserDetailsService {
                             entry -> SkillLevel.valueOf(entry.getValue().toUpperCase())
                     ));
             user.setSkillLevelMap(skillMap);
-            userRepository.save(user);
+            matchmakingIndex.index(userRepository.save(user));
             return true;
         } catch (IllegalArgumentException e) {
             return false;
         }
     }
 
+    /**
+     * Applies the editable fields of {@code updates} with a $set on those fields only, so counters and badges
+     * written concurrently by match completion or ratings are not reverted.
+     */
     public User updateUserFields(User user, Map<String, Object> updates) {
+        Update update = new Update();
         Map<String, Object> filteredUpdates = new HashMap<>(updates);
         filteredUpdates.remove("id");
         filteredUpdates.remove("isOnline");
@@ -185,6 +216,7 @@ public class UserService implements UserDetailsService {
                         throw new IllegalArgumentException("Username già esistente");
                     }
                     user.setUsername(newUsername);
+                    update.set("username", newUsername);
                 }
                 case "email" -> {
                     String newEmail = (String) value;
@@ -193,8 +225,12 @@ public class UserService implements UserDetailsService {
                         throw new IllegalArgumentException("Email già registrata");
                     }
                     user.setEmail(newEmail);
+                    update.set("email", newEmail);
+                }
+                case "bio" -> {
+                    user.setBio((String) value);
+                    update.set("bio", value);
                 }
-                case "bio" -> user.setBio((String) value);
                 case "level" -> {
                     if (value instanceof Integer) {
                         user.setLevel((Integer) value);
@@ -203,6 +239,7 @@ public class UserService implements UserDetailsService {
                     } else {
                         throw new IllegalArgumentException("Il campo 'level' deve essere un intero");
                     }
+                    update.set("level", user.getLevel());
                 }
                 case "rating" -> {
                     if (value instanceof Number) {
@@ -216,28 +253,42 @@ public class UserService implements UserDetailsService {
                     } else {
                         throw new IllegalArgumentException("Il campo 'rating' deve essere un numero");
                     }
+                    update.set("rating", user.getRating());
                 }
                 case "password" -> {
                     String rawPassword = (String) value;
                     if (rawPassword != null && !rawPassword.isEmpty()) {
                         user.setPassword(passwordEncoder.encode(rawPassword));
+                        update.set("password", user.getPassword());
                     }
                 }
-                case "role" -> user.setRole((String) value);
-                case "verified" -> user.setVerified((Boolean) value);
+                case "role" -> {
+                    user.setRole((String) value);
+                    update.set("role", value);
+                }
+                case "verified" -> {
+                    user.setVerified((Boolean) value);
+                    update.set("verified", value);
+                }
                 default -> {
                     // Ignorato
                 }
             }
         });
-        return userRepository.save(user);
+        if (update.getUpdateObject().isEmpty()) {
+            return user;
+        }
+        User saved = userRepository.updateFields(user.getId(), update)
+                .orElseThrow(() -> new UsernameNotFoundException("User with ID " + user.getId() + " not found."));
+        matchmakingIndex.index(saved);
+        displayNameCache.evictUser(saved.getId());
+        return saved;
     }
 
     public void setUserOnlineStatus(String userId, boolean status) throws UsernameNotFoundException {
-        User user = userRepository.findById(userId)
+        userRepository.updateFields(userId, new Update().set("isOnline", status))
                 .orElseThrow(() -> new UsernameNotFoundException("User with ID " + userId + " not found."));
-        user.setOnline(status);
-        userRepository.save(user);
+        matchmakingIndex.updateOnline(userId, status);
     }
 
     public void verifyUserEmail(String token) {
@@ -258,9 +309,8 @@ public class UserService implements UserDetailsService {
     public List<User> getFriendsWithOnlineStatus(String userId) throws UsernameNotFoundException {
         User currentUser = userRepository.findById(userId)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with ID: " + userId));
-        List<Friendship> friendships = friendshipRepository.findBySenderOrReceiverAndStatus(currentUser, currentUser, FriendshipStatus.ACCEPTED);
-        return friendships.stream()
-                .map(f -> f.getSender().getId().equals(userId) ? f.getReceiver() : f.getSender())
-                .collect(Collectors.toList());
+        List<User> friends = new ArrayList<>();
+        userRepository.findAllById(friendshipGraph.friendIds(currentUser.getId())).forEach(friends::add);
+        return friends;
     }
 }
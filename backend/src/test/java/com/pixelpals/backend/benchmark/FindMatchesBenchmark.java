@@ -0,0 +1,224 @@
+package com.pixelpals.backend.benchmark;
+
+import com.pixelpals.backend.dto.MatchedUserDTO;
+import com.pixelpals.backend.enumeration.SkillLevel;
+import com.pixelpals.backend.model.AvailabilityBitmap;
+import com.pixelpals.backend.model.Game;
+import com.pixelpals.backend.model.Platform;
+import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.repository.MatchmakingIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the ways {@code MatchService.findMatches} has selected its results over the same synthetic users,
+ * all held in memory so only the selection is measured:
+ * <ul>
+ *     <li>{@code scanEncounterOrder}: the original stream, a DTO per user and the first hits in scan order;</li>
+ *     <li>{@code scanSortLimit}: the same stream sorted by compatibility before the limit;</li>
+ *     <li>{@code scanBoundedHeap}: scores only, kept in a heap of {@code maxResults}, DTOs for the survivors;</li>
+ *     <li>{@code matchmakingIndex}: {@link MatchmakingIndex#findTopMatches} over its bitsets.</li>
+ * </ul>
+ * Run with {@code mvn test-compile} and then this class's {@code main} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class FindMatchesBenchmark {
+
+    private static final int GAMES = 20;
+    private static final int PLATFORMS = 5;
+    private static final int MAX_RESULTS = 20;
+
+    private static final Comparator<MatchedUserDTO> MATCHED_USER_RANKING = Comparator
+            .comparingInt(MatchedUserDTO::getCompatibilityScore)
+            .thenComparingDouble(MatchedUserDTO::getRating)
+            .thenComparing(MatchedUserDTO::isOnline);
+
+    private static final Comparator<RankedCandidate> CANDIDATE_RANKING = Comparator
+            .comparingInt(RankedCandidate::score)
+            .thenComparingDouble(candidate -> candidate.user().getRating())
+            .thenComparing(candidate -> candidate.user().isOnline());
+
+    @Param({"10000", "100000", "1000000"})
+    public int users;
+
+    private List<User> allUsers;
+    private User currentUser;
+    private MatchmakingIndex matchmakingIndex;
+
+    private final String gameName = "Game 3";
+    private final String platformName = "Platform 1";
+    private final String skillLevel = SkillLevel.ADVANCED.name();
+
+    private record RankedCandidate(User user, int score) {
+    }
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < GAMES; i++) {
+            games.add(new Game("game" + i, "Game " + i, "genre", null, false));
+        }
+        List<Platform> platforms = new ArrayList<>();
+        for (int i = 0; i < PLATFORMS; i++) {
+            platforms.add(new Platform("platform" + i, "Platform " + i, null));
+        }
+
+        allUsers = new ArrayList<>(users);
+        matchmakingIndex = new MatchmakingIndex(null);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setId(String.format("%024x", i));
+            user.setUsername("user" + i);
+            user.setLevel(1 + random.nextInt(50));
+            user.setRating(Math.round(random.nextDouble(5.0) * 10) / 10.0);
+            user.setOnline(random.nextInt(4) == 0);
+            List<Game> preferredGames = new ArrayList<>();
+            Map<String, SkillLevel> skillLevelMap = new HashMap<>();
+            for (int g = 0; g < 3; g++) {
+                Game game = games.get(random.nextInt(GAMES));
+                if (!preferredGames.contains(game)) {
+                    preferredGames.add(game);
+                    skillLevelMap.put(game.getName(), SkillLevel.values()[random.nextInt(SkillLevel.values().length)]);
+                }
+            }
+            user.setPreferredGames(preferredGames);
+            user.setSkillLevelMap(skillLevelMap);
+            List<Platform> userPlatforms = new ArrayList<>();
+            userPlatforms.add(platforms.get(random.nextInt(PLATFORMS)));
+            if (random.nextBoolean()) {
+                Platform second = platforms.get(random.nextInt(PLATFORMS));
+                if (!userPlatforms.contains(second)) {
+                    userPlatforms.add(second);
+                }
+            }
+            user.setPlatforms(userPlatforms);
+            allUsers.add(user);
+            matchmakingIndex.index(user);
+        }
+        currentUser = allUsers.get(0);
+    }
+
+    @Benchmark
+    public List<MatchedUserDTO> scanEncounterOrder() {
+        return allUsers.stream()
+                .filter(user -> !user.getId().equals(currentUser.getId()))
+                .map(user -> toMatchedUserDTO(user, score(user)))
+                .filter(dto -> dto.getCompatibilityScore() > 0)
+                .limit(MAX_RESULTS)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<MatchedUserDTO> scanSortLimit() {
+        return allUsers.stream()
+                .filter(user -> !user.getId().equals(currentUser.getId()))
+                .map(user -> toMatchedUserDTO(user, score(user)))
+                .filter(dto -> dto.getCompatibilityScore() > 0)
+                .sorted(MATCHED_USER_RANKING.reversed())
+                .limit(MAX_RESULTS)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<MatchedUserDTO> scanBoundedHeap() {
+        PriorityQueue<RankedCandidate> heap = new PriorityQueue<>(MAX_RESULTS, CANDIDATE_RANKING);
+        for (User user : allUsers) {
+            if (user.getId().equals(currentUser.getId())) {
+                continue;
+            }
+            int score = score(user);
+            if (score == 0) {
+                continue;
+            }
+            RankedCandidate candidate = new RankedCandidate(user, score);
+            if (heap.size() < MAX_RESULTS) {
+                heap.add(candidate);
+            } else if (CANDIDATE_RANKING.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+        List<RankedCandidate> ranked = new ArrayList<>(heap);
+        ranked.sort(CANDIDATE_RANKING.reversed());
+        return ranked.stream()
+                .map(candidate -> toMatchedUserDTO(candidate.user(), candidate.score()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<MatchmakingIndex.ProfileMatch> matchmakingIndex() {
+        return matchmakingIndex.findTopMatches(currentUser.getId(), gameName, platformName,
+                SkillLevel.valueOf(skillLevel), AvailabilityBitmap.EMPTY, MAX_RESULTS);
+    }
+
+    private int score(User user) {
+        int score = 0;
+        if (user.getPreferredGames().stream().anyMatch(g -> g.getName().equals(gameName))) {
+            score += 50;
+        }
+        if (user.getPlatforms().stream().anyMatch(p -> p.getName().equals(platformName))) {
+            score += 30;
+        }
+        SkillLevel userSkill = user.getSkillLevelMap().get(gameName);
+        if (userSkill != null && userSkill.name().equals(skillLevel)) {
+            score += 20;
+        }
+        return score;
+    }
+
+    private MatchedUserDTO toMatchedUserDTO(User user, int score) {
+        SkillLevel skillLevelForGame = user.getSkillLevelMap().get(gameName);
+        return MatchedUserDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .level(user.getLevel())
+                .rating(user.getRating())
+                .avatarUrl(user.getAvatarUrl())
+                .isOnline(user.isOnline())
+                .compatibilityScore(score)
+                .commonGames(currentUser.getPreferredGames().stream()
+                        .filter(g -> user.getPreferredGames().contains(g))
+                        .map(Game::getName)
+                        .collect(Collectors.toList()))
+                .commonPlatforms(currentUser.getPlatforms().stream()
+                        .filter(p -> user.getPlatforms().contains(p))
+                        .map(Platform::getName)
+                        .collect(Collectors.toList()))
+                .skillLevelForGame(skillLevelForGame != null ? skillLevelForGame.name() : null)
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FindMatchesBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
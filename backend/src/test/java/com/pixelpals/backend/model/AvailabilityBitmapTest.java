@@ -0,0 +1,96 @@
+package com.pixelpals.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityBitmapTest {
+
+    private static final int MONDAY_18 = 18 * 4;
+    private static final int SUNDAY = 6 * AvailabilityBitmap.SLOTS_PER_DAY;
+
+    @Test
+    void wholeSlotRangeCoversExactlyItsSlots() {
+        assertThat(slots("MONDAY 18:00-19:00")).containsExactly(MONDAY_18, MONDAY_18 + 1, MONDAY_18 + 2, MONDAY_18 + 3);
+    }
+
+    @Test
+    void partialSlotsAtEitherEndAreIncluded() {
+        assertThat(slots("MONDAY 18:00-18:20")).containsExactly(MONDAY_18, MONDAY_18 + 1);
+        assertThat(slots("MONDAY 18:10-18:20")).containsExactly(MONDAY_18, MONDAY_18 + 1);
+        assertThat(slots("MONDAY 18:14-18:15")).containsExactly(MONDAY_18);
+    }
+
+    @Test
+    void rangePastMidnightContinuesIntoTheNextDayAndWrapsTheWeek() {
+        assertThat(slots("TUESDAY 23:30-00:30")).containsExactly(
+                AvailabilityBitmap.SLOTS_PER_DAY + 94, AvailabilityBitmap.SLOTS_PER_DAY + 95,
+                2 * AvailabilityBitmap.SLOTS_PER_DAY, 2 * AvailabilityBitmap.SLOTS_PER_DAY + 1);
+        assertThat(slots("SUNDAY 23:30-00:30")).containsExactly(0, 1, SUNDAY + 94, SUNDAY + 95);
+    }
+
+    @Test
+    void equalStartAndEndCoverTwentyFourHours() {
+        assertThat(slots("MONDAY 10:00-10:00")).hasSize(AvailabilityBitmap.SLOTS_PER_DAY);
+    }
+
+    @Test
+    void rangeAcrossAWordBoundarySetsBothWords() {
+        assertThat(slots("MONDAY 15:45-16:15")).containsExactly(63, 64);
+    }
+
+    @Test
+    void malformedEntriesAreSkipped() {
+        assertThat(AvailabilityBitmap.parse(Arrays.asList("MONDAY", "FUNDAY 10:00-11:00", "MONDAY 10-11",
+                "MONDAY 10:00 11:00", null)).isEmpty()).isTrue();
+        assertThat(slots("monday 18:00-18:15", "garbage")).containsExactly(MONDAY_18);
+    }
+
+    @Test
+    void parseAndTimeSlotsAgree() {
+        TimeSlot timeSlot = new TimeSlot();
+        timeSlot.setDayOfWeek(DayOfWeek.FRIDAY);
+        timeSlot.setStartTime(LocalTime.of(20, 0));
+        timeSlot.setEndTime(LocalTime.of(22, 30));
+
+        AvailabilityBitmap parsed = AvailabilityBitmap.parse(List.of("FRIDAY 20:00-22:30"));
+        AvailabilityBitmap built = AvailabilityBitmap.of(List.of(timeSlot));
+
+        assertThat(parsed.overlap(built)).isEqualTo(10);
+        assertThat(parsed.overlap(parsed)).isEqualTo(10);
+    }
+
+    @Test
+    void adjacentRangesDoNotOverlap() {
+        AvailabilityBitmap evening = AvailabilityBitmap.parse(List.of("MONDAY 18:00-19:00"));
+
+        assertThat(evening.overlap(AvailabilityBitmap.parse(List.of("MONDAY 19:00-20:00")))).isZero();
+        assertThat(evening.overlap(AvailabilityBitmap.parse(List.of("MONDAY 18:45-20:00")))).isEqualTo(1);
+        assertThat(evening.overlap(AvailabilityBitmap.parse(List.of("TUESDAY 18:00-19:00")))).isZero();
+        assertThat(evening.overlap(AvailabilityBitmap.EMPTY)).isZero();
+    }
+
+    @Test
+    void overlapWithAStoredRowMatchesOverlapWithABitmap() {
+        AvailabilityBitmap wanted = AvailabilityBitmap.parse(List.of("MONDAY 15:00-17:00"));
+        AvailabilityBitmap stored = AvailabilityBitmap.parse(List.of("MONDAY 15:45-16:15"));
+        long[] rows = new long[3 * AvailabilityBitmap.WORDS];
+        stored.writeTo(rows, 2 * AvailabilityBitmap.WORDS);
+
+        assertThat(wanted.overlap(rows, 2 * AvailabilityBitmap.WORDS)).isEqualTo(wanted.overlap(stored)).isEqualTo(2);
+        assertThat(wanted.overlap(rows, 0)).isZero();
+        assertThat(AvailabilityBitmap.copyOf(rows, 2 * AvailabilityBitmap.WORDS).overlap(stored)).isEqualTo(2);
+    }
+
+    private static List<Integer> slots(String... timeSlots) {
+        List<Integer> slots = new ArrayList<>();
+        AvailabilityBitmap.parse(Arrays.asList(timeSlots)).forEachSlot(slots::add);
+        return slots;
+    }
+}
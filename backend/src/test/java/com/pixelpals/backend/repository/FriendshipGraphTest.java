@@ -0,0 +1,99 @@
+package com.pixelpals.backend.repository;
+
+import com.pixelpals.backend.enumeration.FriendshipStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FriendshipGraphTest {
+
+    private final FriendshipGraph graph = new FriendshipGraph(null);
+
+    @Test
+    void pendingRequestIsSeenFromBothSides() {
+        graph.update("alice", "bob", FriendshipStatus.PENDING);
+
+        assertThat(graph.status("alice", "bob")).isEqualTo(FriendshipStatus.PENDING_SENT);
+        assertThat(graph.status("bob", "alice")).isEqualTo(FriendshipStatus.PENDING_RECEIVED);
+        assertThat(graph.friendIds("alice")).isEmpty();
+    }
+
+    @Test
+    void acceptedFriendshipIsSymmetric() {
+        graph.update("alice", "bob", FriendshipStatus.PENDING);
+        graph.update("alice", "bob", FriendshipStatus.ACCEPTED);
+
+        assertThat(graph.status("alice", "bob")).isEqualTo(FriendshipStatus.ACCEPTED);
+        assertThat(graph.status("bob", "alice")).isEqualTo(FriendshipStatus.ACCEPTED);
+        assertThat(graph.friendIds("alice")).containsExactly("bob");
+        assertThat(graph.friendIds("bob")).containsExactly("alice");
+    }
+
+    @Test
+    void removeClearsTheEdgeFromEitherSide() {
+        graph.update("alice", "bob", FriendshipStatus.ACCEPTED);
+        graph.update("carol", "alice", FriendshipStatus.ACCEPTED);
+
+        graph.remove("bob", "alice");
+
+        assertThat(graph.status("alice", "bob")).isEqualTo(FriendshipStatus.NONE);
+        assertThat(graph.status("bob", "alice")).isEqualTo(FriendshipStatus.NONE);
+        assertThat(graph.friendIds("alice")).containsExactly("carol");
+        assertThat(graph.friendIds("bob")).isEmpty();
+    }
+
+    @Test
+    void requestInTheOtherDirectionReplacesThePreviousState() {
+        graph.update("alice", "bob", FriendshipStatus.REJECTED);
+        graph.update("bob", "alice", FriendshipStatus.PENDING);
+
+        assertThat(graph.status("alice", "bob")).isEqualTo(FriendshipStatus.PENDING_RECEIVED);
+        assertThat(graph.status("bob", "alice")).isEqualTo(FriendshipStatus.PENDING_SENT);
+    }
+
+    @Test
+    void rejectedRequestIsSeenFromBothSides() {
+        graph.update("alice", "bob", FriendshipStatus.REJECTED);
+
+        assertThat(graph.status("alice", "bob")).isEqualTo(FriendshipStatus.REJECTED);
+        assertThat(graph.status("bob", "alice")).isEqualTo(FriendshipStatus.REJECTED);
+    }
+
+    @Test
+    void removeUserClearsEveryEdgeOfThatUser() {
+        graph.update("alice", "bob", FriendshipStatus.ACCEPTED);
+        graph.update("alice", "carol", FriendshipStatus.PENDING);
+        graph.update("dave", "alice", FriendshipStatus.REJECTED);
+        graph.update("bob", "carol", FriendshipStatus.ACCEPTED);
+
+        graph.removeUser("alice");
+
+        assertThat(graph.friendIds("alice")).isEmpty();
+        assertThat(graph.friendIds("bob")).containsExactly("carol");
+        assertThat(graph.status("carol", "alice")).isEqualTo(FriendshipStatus.NONE);
+        assertThat(graph.status("dave", "alice")).isEqualTo(FriendshipStatus.NONE);
+    }
+
+    @Test
+    void friendIdsAreKeptSortedAcrossManyInsertsAndRemovals() {
+        for (int i = 0; i < 50; i++) {
+            graph.update("hub", "u" + i, FriendshipStatus.ACCEPTED);
+        }
+        for (int i = 0; i < 50; i += 2) {
+            graph.remove("u" + i, "hub");
+        }
+
+        assertThat(graph.friendIds("hub")).hasSize(25).allMatch(id -> Integer.parseInt(id.substring(1)) % 2 == 1);
+        assertThat(graph.friendIds("u1")).containsExactly("hub");
+        assertThat(graph.friendIds("u2")).isEmpty();
+    }
+
+    @Test
+    void unknownUsersAndSelfHaveNoEdges() {
+        assertThat(graph.status("alice", "alice")).isEqualTo(FriendshipStatus.SELF);
+        assertThat(graph.status("alice", "bob")).isEqualTo(FriendshipStatus.NONE);
+        assertThat(graph.friendIds("alice")).isEmpty();
+        graph.remove("alice", "bob");
+        graph.removeUser("alice");
+    }
+}
@@ -0,0 +1,95 @@
+package com.pixelpals.backend.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class InMemoryLeaderboardStoreTest {
+
+    private final InMemoryLeaderboardStore store = new InMemoryLeaderboardStore();
+
+    @Test
+    void topIsOrderedByScoreThenUserIdWithConsecutiveRanks() {
+        store.put("global", "carol", 10);
+        store.put("global", "bob", 30);
+        store.put("global", "alice", 10);
+        store.put("global", "dave", 20);
+
+        assertThat(store.top("global", 10))
+                .extracting(LeaderboardStore.Entry::userId, LeaderboardStore.Entry::score, LeaderboardStore.Entry::rank)
+                .containsExactly(
+                        tuple("bob", 30.0, 1L),
+                        tuple("dave", 20.0, 2L),
+                        tuple("alice", 10.0, 3L),
+                        tuple("carol", 10.0, 4L));
+        assertThat(store.top("global", 2)).extracting(LeaderboardStore.Entry::userId).containsExactly("bob", "dave");
+        assertThat(store.top("global", 0)).isEmpty();
+    }
+
+    @Test
+    void putReplacesThePreviousScore() {
+        store.put("global", "alice", 10);
+        store.put("global", "bob", 20);
+        store.put("global", "alice", 30);
+
+        assertThat(store.top("global", 10)).extracting(LeaderboardStore.Entry::userId).containsExactly("alice", "bob");
+        assertThat(store.find("global", "bob")).hasValueSatisfying(entry -> assertThat(entry.rank()).isEqualTo(2));
+    }
+
+    @Test
+    void removedUserLeavesTheBoard() {
+        store.put("global", "alice", 10);
+        store.put("global", "bob", 20);
+        store.remove("global", "bob");
+        store.remove("global", "unknown");
+        store.remove("missing-board", "alice");
+
+        assertThat(store.find("global", "bob")).isEmpty();
+        assertThat(store.find("global", "alice")).hasValueSatisfying(entry -> assertThat(entry.rank()).isEqualTo(1));
+    }
+
+    @Test
+    void boardsAreIndependent() {
+        store.put("game:valorant", "alice", 5);
+        store.put("game:dota", "alice", 50);
+
+        assertThat(store.find("game:valorant", "alice")).map(LeaderboardStore.Entry::score).contains(5.0);
+        assertThat(store.top("game:chess", 10)).isEmpty();
+        assertThat(store.find("game:chess", "alice")).isEmpty();
+    }
+
+    @Test
+    void ranksMatchASortedReferenceAfterRandomUpdates() {
+        Random random = new Random(42);
+        Map<String, Double> reference = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String userId = "u" + random.nextInt(300);
+            if (random.nextInt(5) == 0) {
+                store.remove("global", userId);
+                reference.remove(userId);
+            } else {
+                double score = random.nextInt(50);
+                store.put("global", userId, score);
+                reference.put(userId, score);
+            }
+        }
+        List<String> expected = new ArrayList<>(reference.keySet());
+        expected.sort(Comparator.comparing((String userId) -> reference.get(userId)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        assertThat(store.top("global", Integer.MAX_VALUE)).extracting(LeaderboardStore.Entry::userId)
+                .containsExactlyElementsOf(expected);
+        for (int rank = 1; rank <= expected.size(); rank++) {
+            String userId = expected.get(rank - 1);
+            assertThat(store.find("global", userId).orElseThrow().rank()).as(userId).isEqualTo(rank);
+        }
+    }
+}
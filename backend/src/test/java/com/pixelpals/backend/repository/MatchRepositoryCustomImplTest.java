@@ -0,0 +1,55 @@
+package com.pixelpals.backend.repository;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchRepositoryCustomImplTest {
+
+    @Test
+    void keepsOnlyTheNewestPendingMatchOfEachPairAndGame() {
+        List<Document> pending = List.of(
+                match("old", "u1", "u2", null, "g1", 1_000),
+                match("new", "u2", "u1", null, "g1", 3_000),
+                match("keyed", "u1", "u2", "u1_u2", "g1", 2_000),
+                match("otherGame", "u1", "u2", null, "g2", 1_000),
+                match("otherPair", "u1", "u3", null, "g1", 1_000));
+
+        assertThat(MatchRepositoryCustomImpl.duplicatePendingIds(pending)).containsExactlyInAnyOrder("old", "keyed");
+    }
+
+    @Test
+    void leavesUniquePairsAlone() {
+        List<Document> pending = List.of(
+                match("a", "u1", "u2", null, "g1", 1_000),
+                match("b", "u3", "u4", "u3_u4", "g1", 1_000),
+                match("orphan", null, "u2", null, "g1", 1_000));
+
+        assertThat(MatchRepositoryCustomImpl.duplicatePendingIds(pending)).isEmpty();
+    }
+
+    @Test
+    void breaksMatchedAtTiesByIdAndTreatsMissingTimestampsAsOldest() {
+        List<Document> pending = List.of(
+                match("m1", "u1", "u2", null, "g1", 5_000),
+                match("m2", "u1", "u2", null, "g1", 5_000),
+                match("m0", "u1", "u2", null, "g1", null));
+
+        assertThat(MatchRepositoryCustomImpl.duplicatePendingIds(pending)).containsExactlyInAnyOrder("m1", "m0");
+    }
+
+    private static Document match(String id, String userA, String userB, String pairKey, String gameId, Integer matchedAt) {
+        Document match = new Document("_id", id).append("userAId", userA).append("userBId", userB).append("gameId", gameId);
+        if (pairKey != null) {
+            match.append("pairKey", pairKey);
+        }
+        if (matchedAt != null) {
+            match.append("matchedAt", new Date(matchedAt));
+        }
+        return match;
+    }
+}
@@ -0,0 +1,197 @@
+package com.pixelpals.backend.repository;
+
+import com.pixelpals.backend.enumeration.SkillLevel;
+import com.pixelpals.backend.model.AvailabilityBitmap;
+import com.pixelpals.backend.model.Game;
+import com.pixelpals.backend.model.Platform;
+import com.pixelpals.backend.model.TimeSlot;
+import com.pixelpals.backend.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MatchmakingIndexTest {
+
+    private static final Game VALORANT = new Game("g1", "Valorant", "FPS", null, false);
+    private static final Game DOTA = new Game("g2", "Dota 2", "MOBA", null, false);
+    private static final Platform PC = new Platform("p1", "PC", null);
+    private static final Platform XBOX = new Platform("p2", "Xbox", null);
+
+    private final MatchmakingIndex index = new MatchmakingIndex(null);
+
+    @Test
+    void indexedUserIsFoundWithCommonGamesAndPlatforms() {
+        index.index(user("me", 3.0, List.of(VALORANT, DOTA), List.of(PC), Map.of()));
+        index.index(user("other", 3.0, List.of(VALORANT, DOTA), List.of(PC, XBOX), Map.of("Valorant", SkillLevel.EXPERT)));
+
+        List<MatchmakingIndex.ProfileMatch> matches = find("me", "Valorant", "PC", SkillLevel.EXPERT);
+
+        assertThat(matches).singleElement().satisfies(match -> {
+            assertThat(match.userId()).isEqualTo("other");
+            assertThat(match.commonGames()).containsExactlyInAnyOrder("Valorant", "Dota 2");
+            assertThat(match.commonPlatforms()).containsExactly("PC");
+            assertThat(match.skillLevelForGame()).isEqualTo("EXPERT");
+        });
+    }
+
+    @Test
+    void reindexingReplacesThePreviousProfile() {
+        index.index(user("other", 3.0, List.of(VALORANT), List.of(PC), Map.of()));
+        index.index(user("other", 3.0, List.of(DOTA), List.of(XBOX), Map.of()));
+
+        assertThat(find("me", "Valorant", "PC", null)).isEmpty();
+        assertThat(find("me", "Dota 2", null, null)).extracting(MatchmakingIndex.ProfileMatch::userId)
+                .containsExactly("other");
+    }
+
+    @Test
+    void removedUserIsNotReturnedAndItsRowIsReused() {
+        index.index(user("gone", 3.0, List.of(VALORANT), List.of(PC), Map.of("Valorant", SkillLevel.EXPERT)));
+        index.remove("gone");
+        index.index(user("new", 1.0, List.of(DOTA), List.of(), Map.of()));
+
+        assertThat(find("me", "Valorant", "PC", SkillLevel.EXPERT)).isEmpty();
+        assertThat(find("me", "Dota 2", null, null)).extracting(MatchmakingIndex.ProfileMatch::userId)
+                .containsExactly("new");
+    }
+
+    @Test
+    void requesterIsNeverItsOwnMatch() {
+        index.index(user("me", 3.0, List.of(VALORANT), List.of(PC), Map.of()));
+
+        assertThat(find("me", "Valorant", "PC", null)).isEmpty();
+    }
+
+    @Test
+    void columnUpdatesAreVisibleToQueries() {
+        index.index(user("other", 3.0, List.of(VALORANT), List.of(PC), Map.of()));
+        index.updateRating("other", 4.5);
+        index.updateLevel("other", 12);
+        index.updateOnline("other", true);
+
+        assertThat(find("me", "Valorant", null, null)).singleElement().satisfies(match -> {
+            assertThat(match.rating()).isEqualTo(4.5);
+            assertThat(match.level()).isEqualTo(12);
+            assertThat(match.online()).isTrue();
+        });
+    }
+
+    @Test
+    void availabilityIsStoredPerUser() {
+        User other = user("other", 3.0, List.of(VALORANT), List.of(PC), Map.of());
+        other.setAvailability(List.of(new TimeSlot(DayOfWeek.MONDAY, LocalTime.of(18, 0), LocalTime.of(19, 0))));
+        index.index(other);
+
+        AvailabilityBitmap stored = index.availabilityOf("other");
+
+        assertThat(stored.overlap(AvailabilityBitmap.parse(List.of("MONDAY 18:00-19:00")))).isEqualTo(4);
+        assertThat(index.availabilityOf("unknown").isEmpty()).isTrue();
+    }
+
+    @Test
+    void candidatesAreRankedByWeightedScore() {
+        index.index(user("gameOnly", 5.0, List.of(VALORANT), List.of(), Map.of()));
+        index.index(user("platformOnly", 5.0, List.of(), List.of(PC), Map.of()));
+        index.index(user("gameAndPlatform", 1.0, List.of(VALORANT), List.of(PC), Map.of()));
+        index.index(user("all", 0.0, List.of(VALORANT), List.of(PC), Map.of("Valorant", SkillLevel.ADVANCED)));
+        index.index(user("wrongSkill", 5.0, List.of(VALORANT), List.of(PC), Map.of("Valorant", SkillLevel.BEGINNER)));
+
+        assertThat(find("me", "Valorant", "PC", SkillLevel.ADVANCED))
+                .extracting(MatchmakingIndex.ProfileMatch::userId, MatchmakingIndex.ProfileMatch::score)
+                .containsExactly(
+                        tuple("all", 100),
+                        tuple("wrongSkill", 80),
+                        tuple("gameAndPlatform", 80),
+                        tuple("gameOnly", 50),
+                        tuple("platformOnly", 30));
+    }
+
+    @Test
+    void equalScoresAreOrderedByRatingThenOnlineStatus() {
+        index.index(user("offlineLow", 2.0, List.of(VALORANT), List.of(), Map.of()));
+        index.index(user("offlineHigh", 4.0, List.of(VALORANT), List.of(), Map.of()));
+        index.index(user("onlineLow", 2.0, List.of(VALORANT), List.of(), Map.of()));
+        index.updateOnline("onlineLow", true);
+
+        assertThat(find("me", "Valorant", null, null)).extracting(MatchmakingIndex.ProfileMatch::userId)
+                .containsExactly("offlineHigh", "onlineLow", "offlineLow");
+    }
+
+    @Test
+    void availabilityOverlapAddsOnePointPerHourUpToTheCap() {
+        User hour = user("hour", 1.0, List.of(VALORANT), List.of(), Map.of());
+        hour.setAvailability(List.of(new TimeSlot(DayOfWeek.MONDAY, LocalTime.of(18, 0), LocalTime.of(19, 45))));
+        User always = user("always", 1.0, List.of(VALORANT), List.of(), Map.of());
+        always.setAvailability(List.of(DayOfWeek.values()).stream()
+                .map(day -> new TimeSlot(day, LocalTime.MIDNIGHT, LocalTime.MIDNIGHT))
+                .toList());
+        index.index(hour);
+        index.index(always);
+        index.index(user("never", 5.0, List.of(VALORANT), List.of(), Map.of()));
+        AvailabilityBitmap wanted = AvailabilityBitmap.parse(List.of("MONDAY 00:00-00:00", "TUESDAY 00:00-00:00"));
+
+        assertThat(index.findTopMatches("me", "Valorant", null, null, wanted, 10))
+                .extracting(MatchmakingIndex.ProfileMatch::userId, MatchmakingIndex.ProfileMatch::score)
+                .containsExactly(
+                        tuple("always", MatchmakingIndex.GAME_SCORE + MatchmakingIndex.MAX_AVAILABILITY_SCORE),
+                        tuple("hour", MatchmakingIndex.GAME_SCORE + 1),
+                        tuple("never", MatchmakingIndex.GAME_SCORE));
+    }
+
+    @Test
+    void limitKeepsTheBestCandidatesWhateverTheInsertionOrder() {
+        for (int i = 0; i < 20; i++) {
+            index.index(user("u" + i, (i * 7) % 20 / 4.0, List.of(VALORANT), List.of(), Map.of()));
+        }
+
+        List<MatchmakingIndex.ProfileMatch> top = index.findTopMatches("me", "Valorant", null, null,
+                AvailabilityBitmap.EMPTY, 3);
+
+        assertThat(top).extracting(MatchmakingIndex.ProfileMatch::rating).containsExactly(4.75, 4.5, 4.25);
+        assertThat(index.findTopMatches("me", "Valorant", null, null, AvailabilityBitmap.EMPTY, 0)).isEmpty();
+    }
+
+    @Test
+    void availableAtFiltersBySlotAndGameBestRatedFirst() {
+        User low = user("low", 2.0, List.of(VALORANT), List.of(), Map.of());
+        User high = user("high", 4.0, List.of(VALORANT), List.of(), Map.of());
+        User otherGame = user("otherGame", 5.0, List.of(DOTA), List.of(), Map.of());
+        User otherTime = user("otherTime", 5.0, List.of(VALORANT), List.of(), Map.of());
+        for (User user : List.of(low, high, otherGame)) {
+            user.setAvailability(List.of(new TimeSlot(DayOfWeek.MONDAY, LocalTime.of(18, 0), LocalTime.of(19, 0))));
+        }
+        otherTime.setAvailability(List.of(new TimeSlot(DayOfWeek.MONDAY, LocalTime.of(19, 0), LocalTime.of(20, 0))));
+        List.of(low, high, otherGame, otherTime).forEach(index::index);
+        int slot = AvailabilityBitmap.slotOf(DayOfWeek.MONDAY, LocalTime.of(18, 45));
+
+        assertThat(index.findAvailableAt("me", slot, "Valorant", 10)).extracting(MatchmakingIndex.ProfileMatch::userId)
+                .containsExactly("high", "low");
+        assertThat(index.findAvailableAt("me", slot, null, 10)).extracting(MatchmakingIndex.ProfileMatch::userId)
+                .containsExactly("otherGame", "high", "low");
+        assertThat(index.findAvailableAt("me", slot, "Unknown", 10)).isEmpty();
+    }
+
+    private List<MatchmakingIndex.ProfileMatch> find(String requesterId, String gameName, String platformName,
+                                                     SkillLevel skillLevel) {
+        return index.findTopMatches(requesterId, gameName, platformName, skillLevel, AvailabilityBitmap.EMPTY, 10);
+    }
+
+    static User user(String id, double rating, List<Game> games, List<Platform> platforms,
+                     Map<String, SkillLevel> skills) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(id);
+        user.setRating(rating);
+        user.setPreferredGames(games);
+        user.setPlatforms(platforms);
+        user.setSkillLevelMap(new HashMap<>(skills));
+        return user;
+    }
+}
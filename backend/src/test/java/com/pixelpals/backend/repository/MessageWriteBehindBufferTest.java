@@ -0,0 +1,86 @@
+package com.pixelpals.backend.repository;
+
+import com.pixelpals.backend.model.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageWriteBehindBufferTest {
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final UnreadCounterRepository unreadCounterRepository = mock(UnreadCounterRepository.class);
+    private MessageWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new MessageWriteBehindBuffer(messageRepository, unreadCounterRepository);
+        ReflectionTestUtils.setField(buffer, "enabled", true);
+        ReflectionTestUtils.setField(buffer, "capacity", 10);
+        ReflectionTestUtils.setField(buffer, "batchSize", 10);
+        ReflectionTestUtils.setField(buffer, "maxLatencyMs", 10L);
+        ReflectionTestUtils.setField(buffer, "offerTimeoutMs", 10L);
+        ReflectionTestUtils.setField(buffer, "retryAttempts", 3);
+        ReflectionTestUtils.setField(buffer, "retryBackoffMs", 1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.stop();
+    }
+
+    @Test
+    void transientFailureIsRetriedAndCounted() {
+        Message message = message("m1");
+        when(messageRepository.insert(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        when(messageRepository.insert(any(Message.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenReturn(message);
+
+        ReflectionTestUtils.invokeMethod(buffer, "write", List.of(message));
+
+        verify(messageRepository, times(2)).insert(message);
+        verify(unreadCounterRepository).incrementForMessages(List.of(message));
+        assertThat(buffer.getFailedWrites()).isZero();
+    }
+
+    @Test
+    void persistentFailureSwitchesSendersToSynchronousWrites() {
+        Message lost = message("m1");
+        when(messageRepository.insert(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        when(messageRepository.insert(any(Message.class))).thenThrow(new DataAccessResourceFailureException("down"));
+
+        ReflectionTestUtils.invokeMethod(buffer, "write", List.of(lost));
+
+        verify(messageRepository, times(3)).insert(lost);
+        verify(unreadCounterRepository).incrementForMessages(List.of());
+        assertThat(buffer.getFailedWrites()).isEqualTo(1);
+
+        buffer.start();
+        Message next = message("m2");
+        assertThatThrownBy(() -> buffer.submit(next)).isInstanceOf(DataAccessResourceFailureException.class);
+        verify(messageRepository).insert(next);
+    }
+
+    private static Message message(String id) {
+        Message message = new Message();
+        message.setId(id);
+        message.setReceiverId("receiver");
+        message.setChatRoomId("room");
+        message.setTimestamp(LocalDateTime.now());
+        return message;
+    }
+}
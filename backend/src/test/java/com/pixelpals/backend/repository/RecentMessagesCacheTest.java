@@ -0,0 +1,146 @@
+package com.pixelpals.backend.repository;
+
+import com.pixelpals.backend.dto.MessageDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentMessagesCacheTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final RecentMessagesCache cache = new RecentMessagesCache(3, 100);
+
+    @Test
+    void appendSkipsMessagesAlreadyInTheRoom() {
+        cache.seed("room", List.of(message("m1", 1)), true);
+
+        cache.append("room", message("m2", 2));
+        cache.append("room", message("m2", 2));
+
+        assertThat(ids(cache.latest("room", 4).orElseThrow())).containsExactly("m2", "m1");
+        assertThat(cache.getStats().getCachedMessages()).isEqualTo(2);
+    }
+
+    @Test
+    void markReadDoesNotChangeMessagesHandedInOrOut() {
+        MessageDTO appended = message("m1", 1);
+        cache.seed("room", List.of(), true);
+        cache.append("room", appended);
+        MessageDTO served = cache.latest("room", 1).orElseThrow().get(0);
+
+        cache.markRead("room", "receiver", T0.plusMinutes(5));
+
+        assertThat(appended.isRead()).isFalse();
+        assertThat(served.isRead()).isFalse();
+        assertThat(cache.latest("room", 1).orElseThrow().get(0).isRead()).isTrue();
+    }
+
+    @Test
+    void changingAServedMessageDoesNotChangeTheCache() {
+        cache.seed("room", List.of(message("m1", 1)), true);
+
+        cache.latest("room", 1).orElseThrow().get(0).setContent("edited");
+
+        assertThat(cache.latest("room", 1).orElseThrow().get(0).getContent()).isEqualTo("m1");
+    }
+
+    @Test
+    void leastRecentlyUsedRoomIsEvictedFirst() {
+        RecentMessagesCache small = new RecentMessagesCache(3, 8);
+        small.seed("a", newestFirst(4), false);
+        small.seed("b", newestFirst(4), false);
+        small.latest("a", 1);
+
+        small.append("c", message("c1", 1));
+
+        assertThat(small.latest("a", 4)).isPresent();
+        assertThat(small.latest("b", 1)).isEmpty();
+        assertThat(small.latest("c", 1)).isPresent();
+        assertThat(small.getStats().getRooms()).isEqualTo(2);
+        assertThat(small.getStats().getCachedMessages()).isEqualTo(5);
+    }
+
+    @Test
+    void completeRoomAnswersForMoreMessagesThanItHolds() {
+        cache.seed("room", newestFirst(2), true);
+
+        assertThat(ids(cache.latest("room", 10).orElseThrow())).containsExactly("m2", "m1");
+    }
+
+    @Test
+    void partialRoomAnswersOnlyForWhatItHolds() {
+        cache.seed("room", newestFirst(4), false);
+
+        assertThat(ids(cache.latest("room", 4).orElseThrow())).containsExactly("m4", "m3", "m2", "m1");
+        assertThat(cache.latest("room", 5)).isEmpty();
+        assertThat(cache.getStats().getHits()).isEqualTo(1);
+        assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void pageLargerThanTheRingIsKeptPartial() {
+        cache.seed("room", newestFirst(6), true);
+
+        assertThat(ids(cache.latest("room", 4).orElseThrow())).containsExactly("m6", "m5", "m4", "m3");
+        assertThat(cache.latest("room", 5)).isEmpty();
+    }
+
+    @Test
+    void seedingKeepsMessagesAppendedAfterThePage() {
+        cache.append("room", message("m5", 5));
+        cache.append("room", message("m2", 2));
+
+        cache.seed("room", List.of(message("m4", 4), message("m3", 3)), true);
+
+        assertThat(ids(cache.latest("room", 10).orElseThrow())).containsExactly("m5", "m4", "m3");
+        assertThat(cache.getStats().getCachedMessages()).isEqualTo(3);
+    }
+
+    @Test
+    void completeRoomIsNotReseeded() {
+        cache.seed("room", List.of(message("m1", 1)), true);
+
+        cache.seed("room", List.of(message("m9", 9)), true);
+
+        assertThat(ids(cache.latest("room", 10).orElseThrow())).containsExactly("m1");
+    }
+
+    @Test
+    void overwritingTheOldestMessageMakesTheRoomPartial() {
+        cache.seed("room", List.of(message("m1", 1)), true);
+        for (int minute = 2; minute <= 5; minute++) {
+            cache.append("room", message("m" + minute, minute));
+        }
+
+        assertThat(ids(cache.latest("room", 4).orElseThrow())).containsExactly("m5", "m4", "m3", "m2");
+        assertThat(cache.latest("room", 5)).isEmpty();
+    }
+
+    private static List<MessageDTO> newestFirst(int count) {
+        List<MessageDTO> messages = new ArrayList<>();
+        for (int minute = count; minute >= 1; minute--) {
+            messages.add(message("m" + minute, minute));
+        }
+        return messages;
+    }
+
+    static MessageDTO message(String id, int minute) {
+        return MessageDTO.builder()
+                .id(id)
+                .senderId("sender")
+                .receiverId("receiver")
+                .content(id)
+                .timestamp(T0.plusMinutes(minute))
+                .chatRoomId("room")
+                .build();
+    }
+
+    static List<String> ids(List<MessageDTO> messages) {
+        return messages.stream().map(MessageDTO::getId).toList();
+    }
+}
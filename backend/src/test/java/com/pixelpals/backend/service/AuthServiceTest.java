@@ -0,0 +1,70 @@
+package com.pixelpals.backend.service;
+
+import com.pixelpals.backend.dto.RegisterRequest;
+import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.repository.DisplayNameCache;
+import com.pixelpals.backend.repository.FriendshipGraph;
+import com.pixelpals.backend.repository.FriendshipRepository;
+import com.pixelpals.backend.repository.GameRepository;
+import com.pixelpals.backend.repository.MatchmakingIndex;
+import com.pixelpals.backend.repository.PlatformRepository;
+import com.pixelpals.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final MatchmakingIndex matchmakingIndex = spy(new MatchmakingIndex(userRepository));
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        UserService userService = new UserService(userRepository, mock(GameRepository.class),
+                mock(PlatformRepository.class), passwordEncoder, mock(CloudinaryService.class),
+                mock(FriendshipRepository.class), mock(FriendshipGraph.class), matchmakingIndex,
+                mock(DisplayNameCache.class), mock(LeaderboardService.class));
+        authService = new AuthService(userService, jwtService, mock(AuthenticationManager.class), passwordEncoder,
+                mock(EmailService.class));
+        when(userRepository.findByUsername(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            if (user.getId() == null) {
+                user.setId("new-user");
+            }
+            return user;
+        });
+        when(passwordEncoder.encode(anyString())).thenReturn("hash");
+        when(jwtService.generateVerificationToken(any(User.class))).thenReturn("token");
+        when(jwtService.extractExpiration("token")).thenReturn(new Date());
+    }
+
+    @Test
+    void registeredUserIsMatchable() {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername("newbie");
+        request.setPassword("secret");
+        request.setEmail("newbie@pixelpals.com");
+
+        User registered = authService.register(request);
+
+        verify(matchmakingIndex).index(registered);
+        assertThat(registered.getId()).isEqualTo("new-user");
+    }
+}
@@ -0,0 +1,91 @@
+package com.pixelpals.backend.service;
+
+import com.pixelpals.backend.enumeration.FriendshipStatus;
+import com.pixelpals.backend.model.Friendship;
+import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.repository.DisplayNameCache;
+import com.pixelpals.backend.repository.FriendshipGraph;
+import com.pixelpals.backend.repository.FriendshipRepository;
+import com.pixelpals.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FriendshipServiceTest {
+
+    private final FriendshipRepository friendshipRepository = mock(FriendshipRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final FriendshipGraph friendshipGraph = new FriendshipGraph(null);
+    private final FriendshipService friendshipService = new FriendshipService(friendshipRepository, userRepository,
+            friendshipGraph, mock(DisplayNameCache.class), mock(SimpMessagingTemplate.class));
+    private final User alice = user("alice");
+    private final User bob = user("bob");
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+        when(userRepository.findById("bob")).thenReturn(Optional.of(bob));
+        when(friendshipRepository.findBySenderAndReceiverAndStatus(alice, bob, FriendshipStatus.ACCEPTED))
+                .thenReturn(Optional.empty());
+        when(friendshipRepository.findBySenderAndReceiverAndStatus(bob, alice, FriendshipStatus.ACCEPTED))
+                .thenReturn(Optional.empty());
+    }
+
+    @Test
+    void removeFriendDeletesBothDirections() {
+        Friendship sent = friendship("f1", alice, bob);
+        Friendship received = friendship("f2", bob, alice);
+        when(friendshipRepository.findBySenderAndReceiverAndStatus(alice, bob, FriendshipStatus.ACCEPTED))
+                .thenReturn(Optional.of(sent));
+        when(friendshipRepository.findBySenderAndReceiverAndStatus(bob, alice, FriendshipStatus.ACCEPTED))
+                .thenReturn(Optional.of(received));
+        friendshipGraph.update("alice", "bob", FriendshipStatus.ACCEPTED);
+
+        friendshipService.removeFriend("bob", "alice");
+
+        verify(friendshipRepository).deleteAll(List.of(sent, received));
+        assertThat(friendshipGraph.status("alice", "bob")).isEqualTo(FriendshipStatus.NONE);
+    }
+
+    @Test
+    void removeFriendDeletesTheOnlyDirectionThatExists() {
+        Friendship received = friendship("f2", bob, alice);
+        when(friendshipRepository.findBySenderAndReceiverAndStatus(bob, alice, FriendshipStatus.ACCEPTED))
+                .thenReturn(Optional.of(received));
+
+        friendshipService.removeFriend("bob", "alice");
+
+        verify(friendshipRepository).deleteAll(List.of(received));
+    }
+
+    @Test
+    void removeFriendRejectsUsersWhoAreNotFriends() {
+        assertThatThrownBy(() -> friendshipService.removeFriend("bob", "alice"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(id);
+        return user;
+    }
+
+    private static Friendship friendship(String id, User sender, User receiver) {
+        Friendship friendship = new Friendship();
+        friendship.setId(id);
+        friendship.setSender(sender);
+        friendship.setReceiver(receiver);
+        friendship.setStatus(FriendshipStatus.ACCEPTED);
+        return friendship;
+    }
+}
@@ -0,0 +1,191 @@
+package com.pixelpals.backend.service;
+
+import com.pixelpals.backend.dto.QueueRequestDTO;
+import com.pixelpals.backend.enumeration.MatchStatus;
+import com.pixelpals.backend.model.Game;
+import com.pixelpals.backend.model.Match;
+import com.pixelpals.backend.model.User;
+import com.pixelpals.backend.repository.GameRepository;
+import com.pixelpals.backend.repository.MatchRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MatchmakingQueueServiceTest {
+
+    private static final long WIDEN_EVERY_MS = 30_000;
+
+    private final MatchRepository matchRepository = mock(MatchRepository.class);
+    private final GameRepository gameRepository = mock(GameRepository.class);
+    private final MessageService messageService = mock(MessageService.class);
+    private final List<Match> accepted = new ArrayList<>();
+    private MatchmakingQueueService queueService;
+
+    @BeforeEach
+    void setUp() {
+        queueService = new MatchmakingQueueService(matchRepository, gameRepository, messageService,
+                mock(SimpMessagingTemplate.class));
+        ReflectionTestUtils.setField(queueService, "widenEverySeconds", WIDEN_EVERY_MS / 1000);
+        when(gameRepository.findById("g1")).thenReturn(Optional.of(new Game("g1", "Valorant", "FPS", null, false)));
+        when(messageService.generateChatRoomId(anyString(), anyString())).thenCallRealMethod();
+        when(matchRepository.insert(any(Match.class))).thenAnswer(invocation -> {
+            Match match = invocation.getArgument(0);
+            match.setId("m" + accepted.size());
+            return match;
+        });
+        when(matchRepository.transition(anyString(), eq(MatchStatus.PENDING), any(), any())).thenAnswer(invocation -> {
+            Match match = new Match();
+            match.setId(invocation.getArgument(0));
+            match.setGameName("Valorant");
+            match.setStatus(MatchStatus.ACCEPTED);
+            accepted.add(match);
+            return Optional.of(match);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        queueService.shutdown();
+    }
+
+    @Test
+    void pairsPlayersWithTheSameSkill() {
+        enqueue("a", "PC", "ADVANCED");
+        enqueue("b", "PC", "ADVANCED");
+
+        queueService.matchQueuedPlayers(System.currentTimeMillis());
+
+        assertThat(accepted).hasSize(1);
+        assertThat(queueService.getStats().getTotalQueued()).isZero();
+        assertThat(queueService.getStats().getMatchesCreated()).isEqualTo(1);
+    }
+
+    @Test
+    void skillGapIsBridgedOnlyOnceBothWindowsHaveWidened() {
+        enqueue("a", "PC", "BEGINNER");
+        enqueue("b", "PC", "ADVANCED");
+        long now = System.currentTimeMillis();
+
+        queueService.matchQueuedPlayers(now + WIDEN_EVERY_MS);
+        assertThat(accepted).isEmpty();
+        assertThat(queueService.getStats().getTotalQueued()).isEqualTo(2);
+
+        queueService.matchQueuedPlayers(now + 2 * WIDEN_EVERY_MS);
+        assertThat(accepted).hasSize(1);
+    }
+
+    @Test
+    void playersOnDifferentPlatformsAreNeverPaired() {
+        enqueue("a", "PC", "ADVANCED");
+        enqueue("b", "Xbox", "ADVANCED");
+
+        queueService.matchQueuedPlayers(System.currentTimeMillis() + 10 * WIDEN_EVERY_MS);
+
+        assertThat(accepted).isEmpty();
+        assertThat(queueService.getStats().getTotalQueued()).isEqualTo(2);
+    }
+
+    @Test
+    void playerWhoLeftIsNotMatched() {
+        enqueue("a", "PC", "ADVANCED");
+        enqueue("b", "PC", "ADVANCED");
+
+        assertThat(queueService.leave("a")).isTrue();
+        assertThat(queueService.leave("a")).isFalse();
+        queueService.matchQueuedPlayers(System.currentTimeMillis());
+
+        assertThat(accepted).isEmpty();
+        verify(matchRepository, never()).insert(any(Match.class));
+    }
+
+    @Test
+    void joiningAgainReplacesThePreviousEntry() {
+        enqueue("a", "PC", "ADVANCED");
+        enqueue("a", "PC", "ADVANCED");
+
+        assertThat(queueService.getStats().getTotalQueued()).isEqualTo(1);
+        assertThat(queueService.getStats().getQueueDepthPerGame()).containsEntry("Valorant", 1);
+
+        queueService.matchQueuedPlayers(System.currentTimeMillis());
+        assertThat(accepted).isEmpty();
+    }
+
+    @Test
+    void failedWriteRequeuesBothPlayers() {
+        when(matchRepository.insert(any(Match.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"))
+                .thenAnswer(invocation -> {
+                    Match match = invocation.getArgument(0);
+                    match.setId("m1");
+                    return match;
+                });
+        enqueue("a", "PC", "ADVANCED");
+        enqueue("b", "PC", "ADVANCED");
+
+        queueService.matchQueuedPlayers(System.currentTimeMillis());
+        assertThat(accepted).isEmpty();
+        assertThat(queueService.getStats().getTotalQueued()).isEqualTo(2);
+
+        queueService.matchQueuedPlayers(System.currentTimeMillis());
+        assertThat(accepted).hasSize(1);
+    }
+
+    @Test
+    void existingPendingRequestIsAcceptedInsteadOfDuplicated() {
+        Match pending = new Match();
+        pending.setId("pending");
+        when(matchRepository.insert(any(Match.class))).thenThrow(new DuplicateKeyException("pending_pair_game"));
+        when(matchRepository.findByPairKeyAndGameIdAndStatus("a_b", "g1", MatchStatus.PENDING))
+                .thenReturn(Optional.of(pending));
+        enqueue("a", "PC", "ADVANCED");
+        enqueue("b", "PC", "ADVANCED");
+
+        queueService.matchQueuedPlayers(System.currentTimeMillis());
+
+        assertThat(accepted).extracting(Match::getId).containsExactly("pending");
+    }
+
+    @Test
+    void joiningIsRejectedWhileTheMatchIsBeingWritten() {
+        enqueue("a", "PC", "ADVANCED");
+        enqueue("b", "PC", "ADVANCED");
+        when(matchRepository.insert(any(Match.class))).thenAnswer(invocation -> {
+            assertThatThrownBy(() -> enqueue("a", "PC", "ADVANCED"))
+                    .hasMessage("A match is already being created for you.");
+            assertThat(queueService.leave("a")).isFalse();
+            Match match = invocation.getArgument(0);
+            match.setId("m0");
+            return match;
+        });
+
+        queueService.matchQueuedPlayers(System.currentTimeMillis());
+
+        assertThat(accepted).hasSize(1);
+        assertThat(queueService.getStats().getTotalQueued()).isZero();
+    }
+
+    private void enqueue(String userId, String platform, String skillLevel) {
+        User user = new User();
+        user.setId(userId);
+        user.setUsername(userId);
+        queueService.enqueue(user, new QueueRequestDTO("g1", platform, skillLevel));
+    }
+}
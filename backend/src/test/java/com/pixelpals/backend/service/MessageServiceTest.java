@@ -0,0 +1,153 @@
+package com.pixelpals.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pixelpals.backend.dto.CursorPageDTO;
+import com.pixelpals.backend.dto.MessageDTO;
+import com.pixelpals.backend.model.Message;
+import com.pixelpals.backend.model.UnreadCounter;
+import com.pixelpals.backend.repository.ChatSequenceRepository;
+import com.pixelpals.backend.repository.DisplayNameCache;
+import com.pixelpals.backend.repository.MatchRepository;
+import com.pixelpals.backend.repository.MessageBucketRepository;
+import com.pixelpals.backend.repository.MessageRepository;
+import com.pixelpals.backend.repository.MessageWriteBehindBuffer;
+import com.pixelpals.backend.repository.RecentMessagesCache;
+import com.pixelpals.backend.repository.UnreadCounterRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageServiceTest {
+
+    private static final String ROOM = "a_b";
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final MessageBucketRepository messageBucketRepository = mock(MessageBucketRepository.class);
+    private final UnreadCounterRepository unreadCounterRepository = mock(UnreadCounterRepository.class);
+    private final MessageService messageService = new MessageService(messageRepository, messageBucketRepository,
+            unreadCounterRepository, mock(ChatSequenceRepository.class), mock(MatchRepository.class),
+            mock(DisplayNameCache.class), mock(MessageWriteBehindBuffer.class), new RecentMessagesCache(50, 1000),
+            mock(UnreadNotificationService.class), new ObjectMapper().findAndRegisterModules());
+
+    @Test
+    void exportMergesTiersInOrderAndWritesOverlapOnce() throws IOException {
+        Message archivedOnly = message("000000000000000000000001", 1, 1);
+        Message bothTiers = message("000000000000000000000002", 2, 2);
+        Message sameMinute = message("000000000000000000000003", 2, 3);
+        Message hotOnly = message("000000000000000000000004", 3, 4);
+        when(messageBucketRepository.streamArchived(ROOM)).thenReturn(Stream.of(archivedOnly, bothTiers));
+        when(messageRepository.streamChatRoom(ROOM, 500)).thenReturn(Stream.of(bothTiers, sameMinute, hotOnly));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        messageService.exportChatRoom(ROOM, out);
+
+        List<String> lines = Arrays.asList(out.toString(StandardCharsets.UTF_8).split("\n"));
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).contains(archivedOnly.getId());
+        assertThat(lines.get(1)).contains(bothTiers.getId());
+        assertThat(lines.get(2)).contains(sameMinute.getId());
+        assertThat(lines.get(3)).contains(hotOnly.getId());
+    }
+
+    @Test
+    void sinceReturnsAContiguousRunAcrossBothTiersWithoutDuplicates() {
+        LocalDateTime now = LocalDateTime.now();
+        givenSince(0, List.of(recent(2, now), recent(3, now)), List.of(recent(1, now), recent(2, now)));
+
+        CursorPageDTO<MessageDTO> page = messageService.getMessagesSinceBetweenUsers("a", "b", 0, 10);
+
+        assertThat(page.getItems()).extracting(MessageDTO::getSeq).containsExactly(1L, 2L, 3L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void sinceStopsAtARecentGap() {
+        LocalDateTime now = LocalDateTime.now();
+        givenSince(0, List.of(recent(1, now), recent(2, now), recent(4, now), recent(5, now)), List.of());
+
+        CursorPageDTO<MessageDTO> page = messageService.getMessagesSinceBetweenUsers("a", "b", 0, 10);
+
+        assertThat(page.getItems()).extracting(MessageDTO::getSeq).containsExactly(1L, 2L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void sinceReturnsNothingWhenTheNextNumberIsStillMissing() {
+        LocalDateTime now = LocalDateTime.now();
+        givenSince(3, List.of(recent(5, now)), List.of());
+
+        assertThat(messageService.getMessagesSinceBetweenUsers("a", "b", 3, 10).getItems()).isEmpty();
+    }
+
+    @Test
+    void sinceSkipsAGapOlderThanTheGracePeriod() {
+        givenSince(0, List.of(message("000000000000000000000001", 1, 1), message("000000000000000000000004", 4, 4)),
+                List.of());
+
+        CursorPageDTO<MessageDTO> page = messageService.getMessagesSinceBetweenUsers("a", "b", 0, 10);
+
+        assertThat(page.getItems()).extracting(MessageDTO::getSeq).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void sinceSetsTheCursorOnlyForAFullContiguousPage() {
+        LocalDateTime now = LocalDateTime.now();
+        givenSince(0, List.of(recent(1, now), recent(2, now), recent(3, now)), List.of());
+
+        CursorPageDTO<MessageDTO> page = messageService.getMessagesSinceBetweenUsers("a", "b", 0, 2);
+
+        assertThat(page.getItems()).extracting(MessageDTO::getSeq).containsExactly(1L, 2L);
+        assertThat(page.getNextCursor()).isEqualTo("2");
+    }
+
+    @Test
+    void sinceMarksMessagesBeforeTheReceiversWatermarkAsRead() {
+        LocalDateTime now = LocalDateTime.now();
+        givenSince(0, List.of(recent(1, now.minusSeconds(10)), recent(2, now)), List.of());
+        when(unreadCounterRepository.findByChatRoomId(ROOM)).thenReturn(List.of(UnreadCounter.builder()
+                .userId("b").chatRoomId(ROOM).lastReadAt(now.minusSeconds(5)).build()));
+
+        assertThat(messageService.getMessagesSinceBetweenUsers("a", "b", 0, 10).getItems())
+                .extracting(MessageDTO::getSeq, MessageDTO::isRead)
+                .containsExactly(tuple(1L, true), tuple(2L, false));
+    }
+
+    private void givenSince(long seq, List<Message> hot, List<Message> archived) {
+        when(messageRepository.findByChatRoomIdAndSeqGreaterThan(eq(ROOM), eq(seq), any(Pageable.class))).thenReturn(hot);
+        when(messageBucketRepository.findAfterSeq(eq(ROOM), eq(seq), anyInt())).thenReturn(archived);
+    }
+
+    private static Message recent(long seq, LocalDateTime timestamp) {
+        Message message = message(String.format("%024d", seq), 0, seq);
+        message.setTimestamp(timestamp);
+        return message;
+    }
+
+    static Message message(String id, int minute, long seq) {
+        Message message = new Message();
+        message.setId(id);
+        message.setSenderId("a");
+        message.setReceiverId("b");
+        message.setChatRoomId(ROOM);
+        message.setContent("message " + seq);
+        message.setTimestamp(T0.plusMinutes(minute));
+        message.setSeq(seq);
+        return message;
+    }
+}
@@ -0,0 +1,61 @@
+package com.pixelpals.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    private final PendingMatchExpiryService.TimingWheel wheel = new PendingMatchExpiryService.TimingWheel(8, TICK_MS, 0);
+
+    @Test
+    void deadlineFiresOnItsTickAndNotBefore() {
+        wheel.add("a", 35);
+
+        assertThat(wheel.advance(39)).isEmpty();
+        assertThat(wheel.advance(40)).containsExactly("a");
+        assertThat(wheel.advance(200)).isEmpty();
+    }
+
+    @Test
+    void deadlineMoreThanOneRotationAwayWaitsForItsRound() {
+        wheel.add("late", 100);
+
+        assertThat(wheel.advance(25)).isEmpty();
+        assertThat(wheel.advance(95)).isEmpty();
+        assertThat(wheel.advance(100)).containsExactly("late");
+    }
+
+    @Test
+    void entriesSharingABucketFireInTheirOwnRounds() {
+        wheel.add("first", 30);
+        wheel.add("second", 110);
+
+        assertThat(wheel.advance(30)).containsExactly("first");
+        assertThat(wheel.advance(100)).isEmpty();
+        assertThat(wheel.advance(110)).containsExactly("second");
+    }
+
+    @Test
+    void jumpPastSeveralRotationsReturnsEverythingDue() {
+        wheel.add("a", 30);
+        wheel.add("b", 200);
+        wheel.add("c", 1000);
+        wheel.add("d", 5000);
+
+        assertThat(wheel.advance(2000)).containsExactlyInAnyOrder("a", "b", "c");
+        assertThat(wheel.advance(4990)).isEmpty();
+        assertThat(wheel.advance(5000)).containsExactly("d");
+    }
+
+    @Test
+    void deadlineAlreadyPassedFiresOnTheNextTick() {
+        wheel.advance(50);
+        wheel.add("past", 10);
+
+        assertThat(wheel.advance(59)).isEmpty();
+        assertThat(wheel.advance(60)).containsExactly("past");
+    }
+}
@@ -18,6 +18,8 @@ const ChatComponent = ({
   const [messageInput, setMessageInput] = useState('');
   const [error, setError] = useState('');
   const [loadingHistory, setLoadingHistory] = useState(false);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingOlder, setLoadingOlder] = useState(false);
   const messagesEndRef = useRef(null);
 
   const chatRoomId =
@@ -32,6 +34,7 @@ const ChatComponent = ({
 
     setError('');
     setMessages([]);
+    setNextCursor(null);
 
     const privateSub = stompClient.subscribe(
       `/user/${currentUserUsername}/queue/messages`,
@@ -98,6 +101,7 @@ const ChatComponent = ({
     try {
       const response = await axiosWithAuth.get(`/messages/history/${user2Id}`);
       setMessages(response.data);
+      setNextCursor(response.headers['x-next-cursor'] || null);
     } catch (err) {
       setError('Errore durante il caricamento della cronologia chat.');
     } finally {
@@ -105,6 +109,28 @@ const ChatComponent = ({
     }
   };
 
+  const fetchOlderMessages = async () => {
+    if (!nextCursor || loadingOlder) return;
+    setLoadingOlder(true);
+    try {
+      const response = await axiosWithAuth.get(
+        `/messages/history/${otherUser.id}`,
+        { params: { before: nextCursor } }
+      );
+      setMessages((prevMessages) => [
+        ...response.data.filter(
+          (older) => !prevMessages.some((msg) => msg.id === older.id)
+        ),
+        ...prevMessages,
+      ]);
+      setNextCursor(response.headers['x-next-cursor'] || null);
+    } catch (err) {
+      setError('Errore durante il caricamento dei messaggi precedenti.');
+    } finally {
+      setLoadingOlder(false);
+    }
+  };
+
   const sendMessage = () => {
     if (stompClient && isConnected && messageInput.trim() !== '' && otherUser) {
       const chatMessage = {
@@ -194,7 +220,23 @@ const ChatComponent = ({
             <p>Nessun messaggio in questa conversazione.</p>
           </div>
         ) : (
-          messages.map((msg, index) => (
+          <>
+          {nextCursor && (
+            <div className="flex justify-center">
+              <button
+                onClick={fetchOlderMessages}
+                disabled={loadingOlder}
+                className="text-sm text-blue-300 hover:text-blue-200 transition duration-200"
+              >
+                {loadingOlder ? (
+                  <FontAwesomeIcon icon={faSpinner} spin />
+                ) : (
+                  'Carica messaggi precedenti'
+                )}
+              </button>
+            </div>
+          )}
+          {messages.map((msg, index) => (
             <div
               key={msg.id || index}
               className={`flex ${
@@ -220,7 +262,8 @@ const ChatComponent = ({
                 </span>
               </div>
             </div>
-          ))
+          ))}
+          </>
         )}
         <div ref={messagesEndRef} />
       </div>
@@ -24,9 +24,10 @@ export const UnreadMessagesProvider = ({ children }) => {
   const [matchChatUnreadCount, setMatchChatUnreadCount] = useState(0);
   const [pendingFriendRequestCount, setPendingFriendRequestCount] = useState(0);
 
-  const incrementFriendChat = () =>
-    setFriendChatUnreadCount((prev) => prev + 1);
-  const incrementMatchChat = () => setMatchChatUnreadCount((prev) => prev + 1);
+  const incrementFriendChat = (by = 1) =>
+    setFriendChatUnreadCount((prev) => prev + by);
+  const incrementMatchChat = (by = 1) =>
+    setMatchChatUnreadCount((prev) => prev + by);
   const resetFriendChat = () => setFriendChatUnreadCount(0);
   const resetMatchChat = () => setMatchChatUnreadCount(0);
 
@@ -112,8 +113,13 @@ export const UnreadMessagesProvider = ({ children }) => {
                 [update.chatRoomId]: update.unreadCount,
               }));
             }
-            if (update.type === 'CHAT_FRIEND') incrementFriendChat();
-            if (update.type === 'CHAT_MATCH') incrementMatchChat();
+            if (update.friendMessages !== undefined) {
+              if (update.friendMessages > 0)
+                incrementFriendChat(update.friendMessages);
+              if (update.matchMessages > 0)
+                incrementMatchChat(update.matchMessages);
+            } else if (update.type === 'CHAT_FRIEND') incrementFriendChat();
+            else if (update.type === 'CHAT_MATCH') incrementMatchChat();
           }
         );
 
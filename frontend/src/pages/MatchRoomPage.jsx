@@ -12,6 +12,7 @@ import {
   faTimesCircle,
   faCheckCircle,
   faDoorClosed,
+  faSpinner,
 } from '@fortawesome/free-solid-svg-icons';
 import Swal from 'sweetalert2';
 import SockJS from 'sockjs-client';
@@ -26,6 +27,8 @@ const MatchRoomPage = () => {
   const [error, setError] = useState('');
   const [message, setMessage] = useState('');
   const [chatMessages, setChatMessages] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingOlder, setLoadingOlder] = useState(false);
   const [newMessage, setNewMessage] = useState('');
   const [currentUser, setCurrentUser] = useState(null);
   const messagesEndRef = useRef(null);
@@ -49,6 +52,7 @@ const MatchRoomPage = () => {
           `/messages/match/${matchId}/history`
         );
         setChatMessages(chatHistoryRes.data);
+        setNextCursor(chatHistoryRes.headers['x-next-cursor'] || null);
         const userRes = await axiosWithAuth.get('/auth/me');
         setCurrentUser(userRes.data);
         setLoading(false);
@@ -74,6 +78,32 @@ const MatchRoomPage = () => {
     }
   }, [matchId, navigate]);
 
+  const fetchOlderMessages = async () => {
+    if (!nextCursor || loadingOlder) return;
+    setLoadingOlder(true);
+    try {
+      const response = await axiosWithAuth.get(
+        `/messages/match/${matchId}/history`,
+        { params: { before: nextCursor } }
+      );
+      setChatMessages((prevMessages) => [
+        ...response.data.filter(
+          (older) => !prevMessages.some((msg) => msg.id === older.id)
+        ),
+        ...prevMessages,
+      ]);
+      setNextCursor(response.headers['x-next-cursor'] || null);
+    } catch (err) {
+      setError(
+        `Errore durante il caricamento dei messaggi precedenti: ${
+          err.response?.data?.message || 'Errore sconosciuto.'
+        }`
+      );
+    } finally {
+      setLoadingOlder(false);
+    }
+  };
+
   useEffect(() => {
     if (!matchId || !currentUser) return;
 
@@ -332,7 +362,23 @@ const MatchRoomPage = () => {
                     Nessun messaggio ancora. Inizia a chattare!
                   </p>
                 ) : (
-                  chatMessages.map((msg, index) => (
+                  <>
+                  {nextCursor && (
+                    <div className="flex justify-center">
+                      <button
+                        onClick={fetchOlderMessages}
+                        disabled={loadingOlder}
+                        className="text-sm text-blue-300 hover:text-blue-200 transition duration-200"
+                      >
+                        {loadingOlder ? (
+                          <FontAwesomeIcon icon={faSpinner} spin />
+                        ) : (
+                          'Carica messaggi precedenti'
+                        )}
+                      </button>
+                    </div>
+                  )}
+                  {chatMessages.map((msg, index) => (
                     <div
                       key={msg.id || index}
                       className={`flex ${
@@ -357,7 +403,8 @@ const MatchRoomPage = () => {
                         </p>
                       </div>
                     </div>
-                  ))
+                  ))}
+                  </>
                 )}
                 <div ref={messagesEndRef} />{' '}
               </div>